@@ -74,6 +74,8 @@ public class GameController {
     private Map<String, Label> playerScoreLabels;
     private Set<String> selectedTilesForExchange;
     private Map<String, int[]> placedTiles;
+    private Map<String, Character> blankLetters;
+    private List<String> shownRack;
     private javafx.animation.Timeline gameTimer;
     private long startTime;
     private boolean isMyTurn;
@@ -103,6 +105,8 @@ public class GameController {
         playerScoreLabels = new HashMap<>();
         selectedTilesForExchange = new HashSet<>();
         placedTiles = new HashMap<>();
+        blankLetters = new HashMap<>();
+        shownRack = new ArrayList<>();
         tileViews = new ArrayList<>();
 
         scoreTable.setItems(scoreData);
@@ -182,6 +186,11 @@ public class GameController {
             updatePlayersDisplay(gameState.getPlayers());
 
 
+            if (!rackIds().equals(shownRack)) {
+                fillPlayerRack();
+            }
+
+
             updateScoreTable(gameState.getPlayers());
 
 
@@ -191,7 +200,7 @@ public class GameController {
             updateGameChat(gameState.getChatMessages());
 
 
-            tilesLeftLabel.setText("Tiles left: " + model.getTileBag().remainingTiles());
+            tilesLeftLabel.setText("Tiles left: " + model.getTilesLeft());
 
 
             boardCanvas.setGameState(gameState);
@@ -288,6 +297,9 @@ public class GameController {
         gameChatArea.setScrollTop(Double.MAX_VALUE);
     }
 
+    /**
+     * Стойка из последнего сообщения сервера, кроме фишек, выложенных на доску
+     */
     private void fillPlayerRack() {
         rackView.clearTiles();
         tileViews.clear();
@@ -300,9 +312,23 @@ public class GameController {
 
         if (currentPlayer != null) {
             for (TileBag.Tile tile : currentPlayer.getRack()) {
-                rackView.addTile(tile);
+                if (!placedTiles.containsKey(tile.getId())) {
+                    rackView.addTile(tile);
+                }
             }
         }
+        shownRack = rackIds();
+    }
+
+    private List<String> rackIds() {
+        List<String> ids = new ArrayList<>();
+        Player self = model.getGameState().getPlayerById(model.getPlayerId());
+        if (self != null) {
+            for (TileBag.Tile tile : self.getRack()) {
+                ids.add(tile.getId());
+            }
+        }
+        return ids;
     }
 
     private void initializeTimer() {
@@ -376,50 +402,25 @@ public class GameController {
         if (!validateTilePlacement()) {
             statusLabel.setText("Tiles must be placed in a straight line!");
             showAlert("Error", "Invalid placement",
-                    "Tiles must be placed in a horizontal or vertical line.");
+                    "Tiles must be placed in a horizontal or vertical line without gaps.");
             return;
         }
 
 
-        StringBuilder wordBuilder = new StringBuilder();
-        List<String> tileIds = new ArrayList<>();
-
-        List<Map.Entry<String, int[]>> sortedTiles = new ArrayList<>(placedTiles.entrySet());
-        sortedTiles.sort((a, b) -> {
-            int[] posA = a.getValue();
-            int[] posB = b.getValue();
-            if (posA[0] == posB[0]) {
-                return Integer.compare(posA[1], posB[1]);
-            }
-            return Integer.compare(posA[0], posB[0]);
-        });
-
-        for (Map.Entry<String, int[]> entry : sortedTiles) {
+        // каждая фишка уходит со своей клеткой; бланк - строчной буквой, которую выбрал игрок
+        List<Map<String, Object>> tiles = new ArrayList<>();
+        for (Map.Entry<String, int[]> entry : placedTiles.entrySet()) {
             TileBag.Tile tile = getTileById(entry.getKey());
             if (tile != null) {
-                wordBuilder.append(tile.getLetter());
-                tileIds.add(tile.getId());
+                Character blankLetter = blankLetters.get(tile.getId());
+                char letter = blankLetter != null
+                        ? Character.toLowerCase(blankLetter) : Character.toUpperCase(tile.getLetter());
+                int[] pos = entry.getValue();
+                tiles.add(ProtocolParser.createPlacedTileData(pos[0], pos[1], letter));
             }
         }
 
-        String word = wordBuilder.toString();
-
-
-        int[] firstPos = sortedTiles.get(0).getValue();
-        int row = firstPos[0];
-        int col = firstPos[1];
-
-
-        boolean horizontal = true;
-        if (placedTiles.size() > 1) {
-            int[] secondPos = sortedTiles.get(1).getValue();
-            horizontal = firstPos[0] == secondPos[0];
-        }
-
-        Message moveMsg = ProtocolParser.createPlayerMoveMessage(
-                word.toLowerCase(), row, col, horizontal,
-                tileIds.toArray(new String[0])
-        );
+        Message moveMsg = ProtocolParser.createPlayerMoveMessage(tiles);
 
         if (networkHandler != null) {
             networkHandler.sendMessage(moveMsg);
@@ -430,60 +431,41 @@ public class GameController {
             exchangeButton.setDisable(true);
 
             clearBoardAfterMove();
+            fillPlayerRack();
             boardCanvas.setDraggedTile(null);
         }
     }
 
+    /**
+     * Фишки на одной линии, а клетки между ними заняты новыми фишками или
+     * фишками доски
+     */
     private boolean validateTilePlacement() {
         if (placedTiles.size() < 2) {
             return true;
         }
 
         List<int[]> positions = new ArrayList<>(placedTiles.values());
-
-
-        boolean sameRow = true;
         int firstRow = positions.get(0)[0];
-        for (int i = 1; i < positions.size(); i++) {
-            if (positions.get(i)[0] != firstRow) {
-                sameRow = false;
-                break;
-            }
-        }
-
-
-        boolean sameCol = true;
         int firstCol = positions.get(0)[1];
-        for (int i = 1; i < positions.size(); i++) {
-            if (positions.get(i)[1] != firstCol) {
-                sameCol = false;
-                break;
-            }
-        }
-
+        boolean sameRow = positions.stream().allMatch(pos -> pos[0] == firstRow);
+        boolean sameCol = positions.stream().allMatch(pos -> pos[1] == firstCol);
         if (!sameRow && !sameCol) {
             return false;
         }
 
-
-        if (sameRow) {
-
-            positions.sort((a, b) -> Integer.compare(a[1], b[1]));
-            for (int i = 1; i < positions.size(); i++) {
-                if (positions.get(i)[1] != positions.get(i - 1)[1] + 1) {
-                    return false;
-                }
-            }
-        } else {
-
-            positions.sort((a, b) -> Integer.compare(a[0], b[0]));
-            for (int i = 1; i < positions.size(); i++) {
-                if (positions.get(i)[0] != positions.get(i - 1)[0] + 1) {
-                    return false;
-                }
+        int from = Integer.MAX_VALUE;
+        int to = Integer.MIN_VALUE;
+        for (int[] pos : positions) {
+            from = Math.min(from, sameRow ? pos[1] : pos[0]);
+            to = Math.max(to, sameRow ? pos[1] : pos[0]);
+        }
+        GameState gameState = model.getGameState();
+        for (int i = from; i <= to; i++) {
+            if (!gameState.getCell(sameRow ? firstRow : i, sameRow ? i : firstCol).hasTile()) {
+                return false;
             }
         }
-
         return true;
     }
 
@@ -513,7 +495,7 @@ public class GameController {
             return;
         }
 
-        if (selectedTilesForExchange.size() > model.getTileBag().remainingTiles()) {
+        if (selectedTilesForExchange.size() > model.getTilesLeft()) {
             statusLabel.setText("Not enough tiles in the bag for exchange!");
             showAlert("Error", "Not enough tiles",
                     "There are not enough tiles in the bag for such an exchange.");
@@ -636,6 +618,15 @@ public class GameController {
             }
 
 
+            if (tile.getLetter() == ' ') {
+                Character letter = askBlankLetter();
+                if (letter == null) {
+                    statusLabel.setText("Blank tile returned to the rack");
+                    return;
+                }
+                blankLetters.put(tile.getId(), letter);
+            }
+
             placedTiles.put(tile.getId(), new int[]{row, col});
 
             // Add tile to GameState board so it's displayed
@@ -659,6 +650,21 @@ public class GameController {
         }
     }
 
+    /**
+     * Буква для бланка или null, если игрок передумал
+     */
+    private Character askBlankLetter() {
+        TextInputDialog dialog = new TextInputDialog();
+        dialog.setTitle("Blank tile");
+        dialog.setHeaderText("Which letter should the blank tile stand for?");
+        dialog.setContentText("Letter:");
+        String answer = dialog.showAndWait().orElse("").trim().toUpperCase();
+        if (answer.length() != 1 || answer.charAt(0) < 'A' || answer.charAt(0) > 'Z') {
+            return null;
+        }
+        return answer.charAt(0);
+    }
+
     private boolean isFirstMove(GameState gameState) {
 
         for (int i = 0; i < 15; i++) {
@@ -805,6 +811,7 @@ public class GameController {
                 }
 
                 placedTiles.clear();
+                blankLetters.clear();
                 boardCanvas.drawBoard();
                 statusLabel.setText("Move canceled. All tiles returned to the rack.");
                 submitButton.setDisable(true);
@@ -828,6 +835,7 @@ public class GameController {
             // Remove tile from board and return to rack
             model.getGameState().placeTile(row, col, null);
             placedTiles.remove(tileId);
+            blankLetters.remove(tileId);
             rackView.addTile(clickedTile);
             boardCanvas.drawBoard();
 
@@ -845,6 +853,7 @@ public class GameController {
             model.getGameState().placeTile(pos[0], pos[1], null);
         }
         placedTiles.clear();
+        blankLetters.clear();
         boardCanvas.drawBoard();
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package scrabble.client.controller;
 
 import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -11,6 +12,7 @@ import scrabble.client.model.ClientModel;
 import scrabble.client.network.ClientNetworkHandler;
 import scrabble.protocol.Message;
 import scrabble.protocol.ProtocolParser;
+import scrabble.utils.DictionaryLoader;
 
 public class LobbyController {
     @FXML
@@ -30,6 +32,8 @@ public class LobbyController {
     @FXML
     private ComboBox<String> maxPlayersCombo;
     @FXML
+    private ComboBox<String> dictionaryCombo;
+    @FXML
     private Button createRoomButton;
     @FXML
     private ListView<String> roomsListView;
@@ -69,6 +73,7 @@ public class LobbyController {
             createRoomButton.setDisable(!newVal);
             newRoomNameField.setDisable(!newVal);
             maxPlayersCombo.setDisable(!newVal);
+            dictionaryCombo.setDisable(!newVal);
         });
 
         model.gameStateProperty().addListener((obs, oldState, newState) -> {
@@ -82,6 +87,13 @@ public class LobbyController {
         maxPlayersCombo.getItems().addAll("2", "3", "4");
         maxPlayersCombo.getSelectionModel().selectFirst();
 
+        dictionaryCombo.setItems(model.getAvailableDictionaries());
+        model.getAvailableDictionaries().addListener((ListChangeListener<String>) change -> {
+            if (dictionaryCombo.getValue() == null || !dictionaryCombo.getItems().contains(dictionaryCombo.getValue())) {
+                dictionaryCombo.getSelectionModel().select(DictionaryLoader.DEFAULT_LEXICON);
+            }
+        });
+
         roomsListView.getSelectionModel().selectedItemProperty().addListener(
                 (obs, oldVal, newVal) -> joinRoomButton.setDisable(newVal == null));
     }
@@ -134,7 +146,10 @@ public class LobbyController {
             return;
         }
 
-        Message message = ProtocolParser.createCreateRoomMessage(roomName, Integer.parseInt(maxPlayers));
+        String dictionary = dictionaryCombo.getValue();
+        Message message = dictionary == null
+                ? ProtocolParser.createCreateRoomMessage(roomName, Integer.parseInt(maxPlayers))
+                : ProtocolParser.createCreateRoomMessage(roomName, Integer.parseInt(maxPlayers), dictionary);
 
         if (networkHandler != null) {
             networkHandler.sendMessage(message);
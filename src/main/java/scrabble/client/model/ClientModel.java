@@ -4,15 +4,15 @@ import javafx.beans.property.*;
 import javafx.collections.ObservableList;
 import javafx.collections.FXCollections;
 import java.util.List;
-import scrabble.utils.TileBag;
 
 public class ClientModel {
     private final ObjectProperty<GameState> gameState;
     private final StringProperty playerName;
     private final StringProperty statusMessage;
     private final ListProperty<String> availableRooms;
+    private final ListProperty<String> availableDictionaries;
     private final BooleanProperty connectedToServer;
-    private TileBag tileBag;
+    private int tilesLeft;
     private String playerId;
     private StringProperty currentRoomId;
 
@@ -21,8 +21,8 @@ public class ClientModel {
         this.playerName = new SimpleStringProperty("");
         this.statusMessage = new SimpleStringProperty("Not connected");
         this.availableRooms = new SimpleListProperty<>(FXCollections.observableArrayList());
+        this.availableDictionaries = new SimpleListProperty<>(FXCollections.observableArrayList());
         this.connectedToServer = new SimpleBooleanProperty(false);
-        this.tileBag = new TileBag();
         this.playerId = "";
         this.currentRoomId = new SimpleStringProperty("");
     }
@@ -47,6 +47,14 @@ public class ClientModel {
         availableRooms.setAll(rooms);
     }
 
+    /**
+     * Словари, которые сервер предлагает для новой комнаты
+     */
+    public ObservableList<String> getAvailableDictionaries() { return availableDictionaries.get(); }
+    public void setAvailableDictionaries(List<String> dictionaries) {
+        availableDictionaries.setAll(dictionaries);
+    }
+
     public boolean isConnectedToServer() { return connectedToServer.get(); }
     public void setConnectedToServer(boolean connected) { this.connectedToServer.set(connected); }
 
@@ -65,7 +73,11 @@ public class ClientModel {
         this.currentRoomId.set(currentRoomId);
     }
 
-    public TileBag getTileBag() { return tileBag; }
+    /**
+     * Сколько фишек осталось в мешке комнаты; мешок хранит сервер
+     */
+    public int getTilesLeft() { return tilesLeft; }
+    public void setTilesLeft(int tilesLeft) { this.tilesLeft = tilesLeft; }
 
     public void addAvailableRoom(String roomInfo) {
         if (!availableRooms.contains(roomInfo)) {
@@ -7,6 +7,7 @@ import java.util.HashMap;
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import scrabble.utils.PremiumSquares;
 import scrabble.utils.TileBag.Tile;
 
 public class GameState {
@@ -50,6 +51,7 @@ public class GameState {
 
     public GameState(GameState gameState) {
         this();
+        board = gameState.board;
         players = gameState.players;
         chatMessages = gameState.chatMessages;
         gameSettings = gameState.gameSettings;
@@ -63,22 +65,7 @@ public class GameState {
         
         for (int i = 0; i < 15; i++) {
             for (int j = 0; j < 15; j++) {
-                String multiplier = null;
-
-                
-                if ((i == 0 || i == 14) && (j == 0 || j == 14)) {
-                    multiplier = "TW";
-                }
-                
-                else if (i == 7 && j == 7) {
-                    multiplier = "DW";
-                }
-                
-                else if (i == j || i == 14 - j) {
-                    multiplier = "DL";
-                }
-
-                board[i][j] = new BoardCell(i, j, multiplier);
+                board[i][j] = new BoardCell(i, j, PremiumSquares.getType(i, j));
             }
         }
     }
@@ -32,6 +32,13 @@ public class Player {
     public void setReady(boolean ready) { this.ready = ready; }
     public void setCurrentTurn(boolean isCurrentTurn) { this.isCurrentTurn = isCurrentTurn; }
 
+    /**
+     * Стойка, которую прислал сервер, целиком заменяет прежнюю
+     */
+    public void setRack(List<Tile> tiles) {
+        rack = new ArrayList<>(tiles);
+    }
+
     public void addToRack(Tile tile) {
         if (rack.size() < 7) {
             rack.add(tile);
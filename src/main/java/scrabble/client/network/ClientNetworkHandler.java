@@ -4,6 +4,7 @@ import scrabble.protocol.Message;
 import scrabble.client.model.ClientModel;
 import scrabble.client.model.GameState;
 import scrabble.client.model.Player;
+import scrabble.utils.TileBag;
 import javafx.application.Platform;
 import java.io.IOException;
 import java.net.InetSocketAddress;
@@ -246,6 +247,10 @@ public class ClientNetworkHandler {
                 }
             });
         }
+        List<String> dictionaries = (List<String>) message.get("dictionaries");
+        if (dictionaries != null && !dictionaries.equals(model.getAvailableDictionaries())) {
+            Platform.runLater(() -> model.setAvailableDictionaries(dictionaries));
+        }
     }
 
     private void handleCreateRoomResponse(Message message) {
@@ -360,7 +365,7 @@ public class ClientNetworkHandler {
             gameState.addChatMessage("Goes first: " + currentPlayer.getName());
         }
 
-        fillPlayerRacks();
+        updateOwnRack(gameState, message);
         model.setGameState(gameState);
     }
 
@@ -376,20 +381,44 @@ public class ClientNetworkHandler {
             }
         }
 
+        updateOwnRack(gameState, message);
         model.setGameState(gameState);
     }
 
+    /**
+     * Стойку и остаток мешка присылает сервер; свою стойку клиент видит только собственную
+     */
+    private void updateOwnRack(GameState gameState, Message message) {
+        Object rack = message.get("rack");
+        Player self = gameState.getPlayerById(model.getPlayerId());
+        if (rack != null && self != null) {
+            self.setRack(ProtocolParser.parseTilesData(rack));
+        }
+        Object tilesLeft = message.get("tilesLeft");
+        if (tilesLeft instanceof Number) {
+            model.setTilesLeft(((Number) tilesLeft).intValue());
+        }
+    }
+
     private void handlePlayerMove(Message message) {
         String playerId = (String) message.get("playerId");
         String word = (String) message.get("word");
         int score = ((Double) message.get("score")).intValue();
-        int row = ((Double) message.get("row")).intValue();
-        int col = ((Double) message.get("col")).intValue();
-        boolean horizontal = (Boolean) message.get("horizontal");
 
         GameState gameState = new GameState(model.getGameState());
         Player player = gameState.getPlayerById(playerId);
 
+        // сервер присылает клетки выложенных фишек; строчная буква - бланк без очков
+        Object tiles = message.get("tiles");
+        if (tiles instanceof List) {
+            for (Object item : (List<?>) tiles) {
+                Map<?, ?> tile = (Map<?, ?>) item;
+                char letter = ((String) tile.get("letter")).charAt(0);
+                gameState.placeTile(((Number) tile.get("row")).intValue(), ((Number) tile.get("col")).intValue(),
+                        new TileBag.Tile(letter, Character.isLowerCase(letter) ? 0 : TileBag.getLetterValue(letter)));
+            }
+        }
+
         if (player != null) {
             player.addScore(score);
             gameState.addChatMessage(player.getName() + " placed a word '" + word +
@@ -435,21 +464,6 @@ public class ClientNetworkHandler {
         model.setStatusMessage("Error: " + error);
     }
 
-    private void fillPlayerRacks() {
-        GameState gameState = new GameState(model.getGameState());
-
-        for (Player player : gameState.getPlayers()) {
-            for (int i = 0; i < 7; i++) {
-                scrabble.utils.TileBag.Tile tile = model.getTileBag().drawTile();
-                if (tile != null) {
-                    player.addToRack(tile);
-                }
-            }
-        }
-
-        model.setGameState(gameState);
-    }
-
     public void disconnect() {
         running = false;
         executor.shutdownNow();
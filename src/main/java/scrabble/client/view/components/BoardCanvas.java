@@ -7,6 +7,7 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import scrabble.client.model.GameState;
 import scrabble.client.view.components.TileView.TileDropEvent;
+import scrabble.utils.PremiumSquares;
 import scrabble.utils.TileBag;
 
 public class BoardCanvas extends Canvas {
@@ -83,51 +84,26 @@ public class BoardCanvas extends Canvas {
 
     private Color getCellColor(int row, int col) {
         
-        if (row == 7 && col == 7) return Color.LIGHTCORAL;
+        if (PremiumSquares.isCenter(row, col)) return Color.LIGHTCORAL;
 
-        
-        if ((row == 0 || row == 14) && (col == 0 || col == 14) ||
-                (row == 0 && col == 7) || (row == 7 && col == 0) ||
-                (row == 7 && col == 14) || (row == 14 && col == 7)) {
-            return Color.INDIANRED;
+        switch (PremiumSquares.wordMultiplier(row, col)) {
+            case 3: return Color.INDIANRED;
+            case 2: return Color.LIGHTPINK;
+            default: break;
         }
-
-        
-        if ((row == 1 || row == 13) && (col == 1 || col == 13) ||
-                (row == 2 || row == 12) && (col == 2 || col == 12) ||
-                (row == 3 || row == 11) && (col == 3 || col == 11) ||
-                (row == 4 || row == 10) && (col == 4 || col == 10)) {
-            return Color.LIGHTPINK;
-        }
-
-        
-        if (row == col || row == 14 - col)
-            return Color.LIGHTBLUE;
-
-        
-        if ((row == 1 || row == 13) && (col == 5 || col == 9) ||
-                (row == 5 || row == 9) && (col == 1 || col == 13) ||
-                (row == 5 || row == 9) && (col == 5 || col == 9)) {
-            return Color.LIGHTSTEELBLUE;
+        switch (PremiumSquares.letterMultiplier(row, col)) {
+            case 3: return Color.LIGHTSTEELBLUE;
+            case 2: return Color.LIGHTBLUE;
+            default: return Color.BEIGE;
         }
-
-        
-        return Color.BEIGE;
     }
 
     private String getBonusText(int row, int col) {
-        if (row == 7 && col == 7) return "★";
-        if ((row == 0 || row == 14) && (col == 0 || col == 14) ||
-                (row == 0 && col == 7) || (row == 7 && col == 0) ||
-                (row == 7 && col == 14) || (row == 14 && col == 7)) return "3W";
-        if ((row == 1 || row == 13) && (col == 1 || col == 13) ||
-                (row == 2 || row == 12) && (col == 2 || col == 12) ||
-                (row == 3 || row == 11) && (col == 3 || col == 11) ||
-                (row == 4 || row == 10) && (col == 4 || col == 10)) return "2W";
-        if ((row == 1 || row == 13) && (col == 5 || col == 9) ||
-                (row == 5 || row == 9) && (col == 1 || col == 13) ||
-                (row == 5 || row == 9) && (col == 5 || col == 9)) return "3L";
-        if (row == col || row == 14 - col) return "2L";
+        if (PremiumSquares.isCenter(row, col)) return "★";
+        int wordMultiplier = PremiumSquares.wordMultiplier(row, col);
+        if (wordMultiplier > 1) return wordMultiplier + "W";
+        int letterMultiplier = PremiumSquares.letterMultiplier(row, col);
+        if (letterMultiplier > 1) return letterMultiplier + "L";
         return null;
     }
 
@@ -2,7 +2,11 @@ package scrabble.protocol;
 
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
+import scrabble.utils.TileBag;
+
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -22,6 +26,12 @@ public class ProtocolParser {
         return msg;
     }
 
+    public static Message createCreateRoomMessage(String roomName, int maxPlayers, String dictionary) {
+        Message msg = createCreateRoomMessage(roomName, maxPlayers);
+        msg.put("dictionary", dictionary);
+        return msg;
+    }
+
     public static Message createJoinRoomMessage(String roomId) {
         Message msg = new Message(MessageType.JOIN_ROOM);
         msg.put("roomId", roomId);
@@ -40,17 +50,26 @@ public class ProtocolParser {
         return new Message(MessageType.GAME_START);
     }
 
-    public static Message createPlayerMoveMessage(String word, int row, int col,
-                                                  boolean horizontal, String[] tileIds) {
+    /**
+     * Ход: каждая выложенная фишка со своей клеткой, см. {@link #createPlacedTileData}
+     */
+    public static Message createPlayerMoveMessage(List<Map<String, Object>> tiles) {
         Message msg = new Message(MessageType.PLAYER_MOVE);
-        msg.put("word", word);
-        msg.put("row", row);
-        msg.put("col", col);
-        msg.put("horizontal", horizontal);
-        msg.put("tileIds", tileIds);
+        msg.put("tiles", tiles);
         return msg;
     }
 
+    /**
+     * Выложенная фишка: клетка и буква; строчная буква - бланк
+     */
+    public static Map<String, Object> createPlacedTileData(int row, int col, char letter) {
+        Map<String, Object> tile = new HashMap<>();
+        tile.put("row", row);
+        tile.put("col", col);
+        tile.put("letter", String.valueOf(letter));
+        return tile;
+    }
+
     public static Message createSkipTurnMessage() {
         Message msg = new Message(MessageType.PLAYER_MOVE);
         msg.put("action", "skip");
@@ -88,6 +107,12 @@ public class ProtocolParser {
         return msg;
     }
 
+    public static Message createRoomListMessage(List<String> rooms, List<String> dictionaries) {
+        Message msg = createRoomListMessage(rooms);
+        msg.put("dictionaries", dictionaries);
+        return msg;
+    }
+
     public static Message createGameStateMessage(String currentPlayerId, Map<String, Object> gameData) {
         Message msg = new Message(MessageType.GAME_STATE);
         msg.put("currentPlayer", currentPlayerId);
@@ -117,6 +142,12 @@ public class ProtocolParser {
         return msg;
     }
 
+    public static Message createCreateRoomResponseMessage(String roomId, String roomName, String dictionary) {
+        Message msg = createCreateRoomResponseMessage(roomId, roomName);
+        msg.put("dictionary", dictionary);
+        return msg;
+    }
+
     public static Message createJoinRoomResponseMessage(String roomId, String roomName, List<String> players) {
         Message msg = new Message(MessageType.JOIN_ROOM);
         msg.put("roomId", roomId);
@@ -154,14 +185,59 @@ public class ProtocolParser {
         return msg;
     }
 
-    public static Message createPlayerMoveResultMessage(String playerId, String word, int score, int row, int col, boolean horizontal) {
+    /**
+     * Начало игры для одного игрока: его стойка и число фишек в мешке
+     */
+    public static Message createGameStartResponseMessage(String currentPlayerId, List<TileBag.Tile> rack,
+                                                         int tilesLeft) {
+        Message msg = createGameStartResponseMessage(currentPlayerId);
+        msg.put("rack", createTilesData(rack));
+        msg.put("tilesLeft", tilesLeft);
+        return msg;
+    }
+
+    public static Message createGameStateMessage(String currentPlayerId, List<TileBag.Tile> rack, int tilesLeft) {
+        Map<String, Object> gameData = new HashMap<>();
+        gameData.put("rack", createTilesData(rack));
+        gameData.put("tilesLeft", tilesLeft);
+        return createGameStateMessage(currentPlayerId, gameData);
+    }
+
+    /**
+     * Фишки для сообщения: идентификатор, буква (пробел - бланк) и очки
+     */
+    public static List<Map<String, Object>> createTilesData(List<TileBag.Tile> tiles) {
+        List<Map<String, Object>> data = new ArrayList<>(tiles.size());
+        for (TileBag.Tile tile : tiles) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("id", tile.getId());
+            item.put("letter", String.valueOf(tile.getLetter()));
+            item.put("points", tile.getPoints());
+            data.add(item);
+        }
+        return data;
+    }
+
+    public static List<TileBag.Tile> parseTilesData(Object data) {
+        List<TileBag.Tile> tiles = new ArrayList<>();
+        if (data instanceof List) {
+            for (Object item : (List<?>) data) {
+                Map<?, ?> tile = (Map<?, ?>) item;
+                String letter = (String) tile.get("letter");
+                tiles.add(new TileBag.Tile((String) tile.get("id"), letter.isEmpty() ? ' ' : letter.charAt(0),
+                        ((Number) tile.get("points")).intValue()));
+            }
+        }
+        return tiles;
+    }
+
+    public static Message createPlayerMoveResultMessage(String playerId, String word, int score,
+                                                        List<Map<String, Object>> tiles) {
         Message msg = new Message(MessageType.PLAYER_MOVE);
         msg.put("playerId", playerId);
         msg.put("word", word);
         msg.put("score", score);
-        msg.put("row", row);
-        msg.put("col", col);
-        msg.put("horizontal", horizontal);
+        msg.put("tiles", tiles);
         return msg;
     }
 
@@ -2,6 +2,7 @@ package scrabble.server;
 
 import scrabble.server.controller.ServerController;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
@@ -25,6 +26,7 @@ public class ServerMain extends Application {
         Button startButton = new Button("Start server");
         Button stopButton = new Button("Stop server");
         stopButton.setDisable(true);
+        Button reloadButton = new Button("Reload dictionary");
 
         logArea = new TextArea();
         logArea.setEditable(false);
@@ -53,7 +55,12 @@ public class ServerMain extends Application {
             log("Server stopped");
         });
 
-        HBox controls = new HBox(10, new Label("Port:"), portField, startButton, stopButton);
+        reloadButton.setOnAction(e -> {
+            log("Reloading dictionaries...");
+            controller.reloadDictionaries(report -> Platform.runLater(() -> log(report)));
+        });
+
+        HBox controls = new HBox(10, new Label("Port:"), portField, startButton, stopButton, reloadButton);
         controls.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
 
         root.getChildren().addAll(title, controls, new Label("Server's log:"), logArea);
@@ -2,6 +2,10 @@ package scrabble.server.controller;
 
 import scrabble.server.model.ServerModel;
 import scrabble.server.network.ServerNetworkHandler;
+import scrabble.utils.LexiconRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class ServerController {
     private ServerModel model;
@@ -33,6 +37,21 @@ public class ServerController {
         if (isRunning && networkHandler != null) {
             networkHandler.stop();
             isRunning = false;
+            for (String stats : model.getLexicons().getLookupStats()) {
+                System.out.println("Dictionary lookups, " + stats);
+            }
+        }
+    }
+
+    /**
+     * Перезагружает словари без остановки сервера; итог каждой перезагрузки
+     * (время и изменение памяти) передаётся в onReport
+     */
+    public void reloadDictionaries(Consumer<String> onReport) {
+        for (CompletableFuture<LexiconRegistry.ReloadReport> reload : model.reloadDictionaries()) {
+            reload.whenComplete((report, error) -> onReport.accept(error == null
+                    ? report.toString()
+                    : "Dictionary reload failed: " + (error.getCause() != null ? error.getCause() : error).getMessage()));
         }
     }
 
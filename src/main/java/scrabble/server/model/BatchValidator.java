@@ -0,0 +1,183 @@
+package scrabble.server.model;
+
+import scrabble.utils.Lexicon;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+
+/**
+ * Пакетная проверка и пересчёт очков архивных партий. Ходы разных партий
+ * могут идти вперемешку, но ходы одной партии - по порядку. Каждая партия
+ * переигрывается отдельной задачей пула на собственной доске: задача
+ * проверяет ход в контексте потока и ставит его фишки на доску, так что
+ * потоки не делят ничего, кроме неизменяемого словаря.
+ */
+public class BatchValidator {
+    private final Lexicon lexicon;
+    private final ForkJoinPool pool;
+
+    public BatchValidator(Lexicon lexicon) {
+        this(lexicon, ForkJoinPool.commonPool());
+    }
+
+    public BatchValidator(Lexicon lexicon, ForkJoinPool pool) {
+        this.lexicon = lexicon;
+        this.pool = pool;
+    }
+
+    /**
+     * Ход из архива. Бит i в blankMask означает, что i-я буква слова
+     * выложена бланком.
+     */
+    public static final class ArchivedMove {
+        private final String gameId;
+        private final String word;
+        private final int row;
+        private final int col;
+        private final boolean horizontal;
+        private final int blankMask;
+
+        public ArchivedMove(String gameId, String word, int row, int col, boolean horizontal, int blankMask) {
+            this.gameId = gameId;
+            this.word = word;
+            this.row = row;
+            this.col = col;
+            this.horizontal = horizontal;
+            this.blankMask = blankMask;
+        }
+
+        public String getGameId() { return gameId; }
+        public String getWord() { return word; }
+        public int getRow() { return row; }
+        public int getCol() { return col; }
+        public boolean isHorizontal() { return horizontal; }
+        public int getBlankMask() { return blankMask; }
+    }
+
+    /**
+     * Итог одной партии: код статуса {@link ValidationContext} и очки
+     * каждого хода. Отклонённый ход не меняет доску и приносит 0 очков.
+     */
+    public static final class GameResult {
+        private final String gameId;
+        private final int[] statuses;
+        private final int[] scores;
+        private final int totalScore;
+        private final int invalidMoves;
+        private final String firstError;
+
+        GameResult(String gameId, int[] statuses, int[] scores, int totalScore, int invalidMoves,
+                   String firstError) {
+            this.gameId = gameId;
+            this.statuses = statuses;
+            this.scores = scores;
+            this.totalScore = totalScore;
+            this.invalidMoves = invalidMoves;
+            this.firstError = firstError;
+        }
+
+        public String getGameId() { return gameId; }
+        public int getMoveCount() { return scores.length; }
+        public int getStatus(int move) { return statuses[move]; }
+        public int getScore(int move) { return scores[move]; }
+        public int getTotalScore() { return totalScore; }
+        public int getInvalidMoves() { return invalidMoves; }
+
+        /**
+         * Сообщение о первом отклонённом ходе или null
+         */
+        public String getFirstError() { return firstError; }
+    }
+
+    /**
+     * Итог пакета: результаты партий в порядке их первого появления и пропускная способность
+     */
+    public static final class Report {
+        private final List<GameResult> games;
+        private final long moves;
+        private final long invalidMoves;
+        private final long elapsedNanos;
+
+        Report(List<GameResult> games, long elapsedNanos) {
+            long moveCount = 0;
+            long invalidCount = 0;
+            for (GameResult game : games) {
+                moveCount += game.getMoveCount();
+                invalidCount += game.getInvalidMoves();
+            }
+            this.games = games;
+            this.moves = moveCount;
+            this.invalidMoves = invalidCount;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public List<GameResult> getGames() { return games; }
+        public long getMoveCount() { return moves; }
+        public long getInvalidMoveCount() { return invalidMoves; }
+        public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+
+        public double getMovesPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : moves * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Validated %d moves from %d games in %d ms (%.0f moves/sec), %d invalid",
+                    moves, games.size(), getElapsedMillis(), getMovesPerSecond(), invalidMoves);
+        }
+    }
+
+    public Report validate(Stream<ArchivedMove> moves) {
+        long start = System.nanoTime();
+        Map<String, List<ArchivedMove>> games = new LinkedHashMap<>();
+        moves.forEach(move -> games.computeIfAbsent(move.getGameId(), id -> new ArrayList<>()).add(move));
+
+        List<ForkJoinTask<GameResult>> tasks = new ArrayList<>(games.size());
+        for (Map.Entry<String, List<ArchivedMove>> game : games.entrySet()) {
+            tasks.add(pool.submit(() -> replay(game.getKey(), game.getValue())));
+        }
+        List<GameResult> results = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<GameResult> task : tasks) {
+            results.add(task.join());
+        }
+
+        Report report = new Report(results, System.nanoTime() - start);
+        System.out.println(report);
+        return report;
+    }
+
+    /**
+     * Архив хранит только слова, поэтому фишки игрока не проверяются
+     */
+    private GameResult replay(String gameId, List<ArchivedMove> moves) {
+        Board board = new Board(lexicon.getDictionary());
+        ValidationContext context = ValidationContext.current();
+        int[] statuses = new int[moves.size()];
+        int[] scores = new int[moves.size()];
+        int totalScore = 0;
+        int invalidMoves = 0;
+        String firstError = null;
+
+        for (int i = 0; i < moves.size(); i++) {
+            ArchivedMove move = moves.get(i);
+            statuses[i] = context.validate(move.getWord(), move.getBlankMask(), move.getRow(), move.getCol(),
+                    move.isHorizontal(), board, ValidationContext.ANY_TILES, lexicon);
+            if (statuses[i] == ValidationContext.VALID) {
+                scores[i] = context.getScore();
+                totalScore += scores[i];
+                context.applyTo(board);
+            } else {
+                invalidMoves++;
+                if (firstError == null) {
+                    firstError = "Move " + (i + 1) + ": " + context.getMessage();
+                }
+            }
+        }
+        return new GameResult(gameId, statuses, scores, totalScore, invalidMoves, firstError);
+    }
+}
@@ -0,0 +1,454 @@
+package scrabble.server.model;
+
+import scrabble.client.model.GameState;
+import scrabble.utils.Dawg;
+import scrabble.utils.DictionaryLoader;
+import scrabble.utils.TileBag;
+import scrabble.utils.Zobrist;
+
+import java.util.Arrays;
+
+/**
+ * Компактная доска сервера. Занятость хранится битовыми масками: по short на
+ * строку (бит c - столбец c) и по short на столбец (бит r - строка r), буквы -
+ * в byte[225] по индексу row * 15 + col. Заглавная буква - обычная фишка,
+ * строчная - бланк, 0 - пустая клетка. Копия доски - это несколько
+ * небольших массивов, поэтому её дёшево делать для симуляций.
+ *
+ * Для каждой пустой клетки и каждого направления хода доска хранит маску
+ * букв, допустимых перпендикулярным словом, и сумму очков фишек этого слова.
+ * После хода пересчитываются только клетки на концах линий, через которые
+ * прошли новые фишки, так что проверка поперечного слова - одна операция с маской.
+ *
+ * Так же на ходу поддерживаются число фишек и множество якорей - пустых
+ * клеток рядом с фишками (на пустой доске якорь один - центр), по маске на
+ * строку и на столбец. Первый ход и связность проверяются за O(1).
+ *
+ * Хэш Зобриста доски тоже обновляется при каждой постановке фишки и
+ * служит ключом кэшей без обхода всех 225 клеток.
+ */
+public final class Board {
+    public static final int SIZE = 15;
+    public static final int CENTER = 7;
+    public static final int FULL_LINE = (1 << SIZE) - 1;
+    public static final int ALL_LETTERS = (1 << 26) - 1;
+    private static final int HAS_CROSS_WORD = 1 << 26;
+    private static final int SQUARES = SIZE * SIZE;
+
+    private final Dawg lexicon;
+    private final short[] rows;
+    private final short[] columns;
+    private final byte[] letters;
+    // [0, 225) - для горизонтальных ходов (поперечное слово по столбцу), [225, 450) - для вертикальных
+    private final int[] crossChecks;
+    private final short[] crossScores;
+    private final short[] anchorRows;
+    private final short[] anchorColumns;
+    private int tileCount;
+    private long hash;
+
+    public Board() {
+        this(DictionaryLoader.loadDictionary());
+    }
+
+    public Board(Dawg lexicon) {
+        this.lexicon = lexicon;
+        this.rows = new short[SIZE];
+        this.columns = new short[SIZE];
+        this.letters = new byte[SQUARES];
+        this.crossChecks = new int[2 * SQUARES];
+        this.crossScores = new short[2 * SQUARES];
+        this.anchorRows = new short[SIZE];
+        this.anchorColumns = new short[SIZE];
+        Arrays.fill(crossChecks, ALL_LETTERS);
+        anchorRows[CENTER] = (short) (1 << CENTER);
+        anchorColumns[CENTER] = (short) (1 << CENTER);
+    }
+
+    private Board(Board other) {
+        this.lexicon = other.lexicon;
+        this.rows = other.rows.clone();
+        this.columns = other.columns.clone();
+        this.letters = other.letters.clone();
+        this.crossChecks = other.crossChecks.clone();
+        this.crossScores = other.crossScores.clone();
+        this.anchorRows = other.anchorRows.clone();
+        this.anchorColumns = other.anchorColumns.clone();
+        this.tileCount = other.tileCount;
+        this.hash = other.hash;
+    }
+
+    public Board copy() {
+        return new Board(this);
+    }
+
+    /**
+     * Та же расстановка фишек с поперечными проверками по другому словарю,
+     * например после его перезагрузки
+     */
+    public Board withLexicon(Dawg lexicon) {
+        Board board = new Board(lexicon);
+        for (int square = 0; square < SQUARES; square++) {
+            if (letters[square] != 0) {
+                board.place(square / SIZE, square % SIZE, (char) letters[square]);
+            }
+        }
+        return board;
+    }
+
+    public static Board fromCells(GameState.BoardCell[][] cells) {
+        return fromCells(cells, DictionaryLoader.loadDictionary());
+    }
+
+    public static Board fromCells(GameState.BoardCell[][] cells, Dawg lexicon) {
+        Board board = new Board(lexicon);
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                if (cells[r][c].hasTile()) {
+                    board.place(r, c, cells[r][c].getTile().getLetter());
+                }
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Тот же хэш, что дала бы {@link #getHash()} у доски из этих клеток,
+     * но без построения доски и поперечных проверок
+     */
+    public static long hashOf(GameState.BoardCell[][] cells) {
+        long hash = 0;
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                if (cells[r][c].hasTile()) {
+                    hash ^= Zobrist.tile(index(r, c), cells[r][c].getTile().getLetter());
+                }
+            }
+        }
+        return hash;
+    }
+
+    public static int index(int row, int col) {
+        return row * SIZE + col;
+    }
+
+    /**
+     * Ставит фишку; строчная буква означает бланк. Занятую клетку перезаписывать
+     * нельзя: сломались бы счётчик фишек, хэш, якоря и поперечные проверки.
+     */
+    public void place(int row, int col, char letter) {
+        if (isOccupied(row, col)) {
+            throw new IllegalStateException("Square " + (char) ('A' + col) + (row + 1) + " is already occupied");
+        }
+        if (tileCount++ == 0) {
+            setAnchor(CENTER, CENTER, false);
+        }
+        rows[row] |= (short) (1 << col);
+        columns[col] |= (short) (1 << row);
+        letters[index(row, col)] = (byte) letter;
+        hash ^= Zobrist.tile(index(row, col), letter);
+
+        setAnchor(row, col, false);
+        if (row > 0 && !isOccupied(row - 1, col)) {
+            setAnchor(row - 1, col, true);
+        }
+        if (row < SIZE - 1 && !isOccupied(row + 1, col)) {
+            setAnchor(row + 1, col, true);
+        }
+        if (col > 0 && !isOccupied(row, col - 1)) {
+            setAnchor(row, col - 1, true);
+        }
+        if (col < SIZE - 1 && !isOccupied(row, col + 1)) {
+            setAnchor(row, col + 1, true);
+        }
+
+        int top = row;
+        while (top > 0 && isOccupied(top - 1, col)) {
+            top--;
+        }
+        int bottom = row;
+        while (bottom < SIZE - 1 && isOccupied(bottom + 1, col)) {
+            bottom++;
+        }
+        if (top > 0) {
+            updateCrossCheck(true, top - 1, col);
+        }
+        if (bottom < SIZE - 1) {
+            updateCrossCheck(true, bottom + 1, col);
+        }
+
+        int left = col;
+        while (left > 0 && isOccupied(row, left - 1)) {
+            left--;
+        }
+        int right = col;
+        while (right < SIZE - 1 && isOccupied(row, right + 1)) {
+            right++;
+        }
+        if (left > 0) {
+            updateCrossCheck(false, row, left - 1);
+        }
+        if (right < SIZE - 1) {
+            updateCrossCheck(false, row, right + 1);
+        }
+    }
+
+    /**
+     * Пересчитывает маску и очки перпендикулярного слова для пустой клетки.
+     * horizontal - направление хода, поперечное слово идёт в другую сторону.
+     */
+    private void updateCrossCheck(boolean horizontal, int row, int col) {
+        int dr = horizontal ? 1 : 0;
+        int dc = horizontal ? 0 : 1;
+        int startRow = row;
+        int startCol = col;
+        while (startRow - dr >= 0 && startCol - dc >= 0 && isOccupied(startRow - dr, startCol - dc)) {
+            startRow -= dr;
+            startCol -= dc;
+        }
+
+        int score = 0;
+        int node = lexicon.root();
+        for (int r = startRow, c = startCol; r != row || c != col; r += dr, c += dc) {
+            score += getTileValue(r, c);
+            node = step(node, r, c);
+        }
+
+        int endRow = row;
+        int endCol = col;
+        while (endRow + dr < SIZE && endCol + dc < SIZE && isOccupied(endRow + dr, endCol + dc)) {
+            endRow += dr;
+            endCol += dc;
+            score += getTileValue(endRow, endCol);
+        }
+
+        int allowed = 0;
+        if (node >= 0) {
+            for (int mask = lexicon.childMask(node) & ALL_LETTERS; mask != 0; mask &= mask - 1) {
+                int symbol = Integer.numberOfTrailingZeros(mask);
+                int next = lexicon.child(node, symbol);
+                for (int r = row + dr, c = col + dc; (r <= endRow && c <= endCol) && next >= 0; r += dr, c += dc) {
+                    next = step(next, r, c);
+                }
+                if (next >= 0 && lexicon.isTerminal(next)) {
+                    allowed |= 1 << symbol;
+                }
+            }
+        }
+
+        int slot = slot(horizontal, row, col);
+        crossChecks[slot] = allowed | HAS_CROSS_WORD;
+        crossScores[slot] = (short) score;
+    }
+
+    private int step(int node, int row, int col) {
+        int symbol = Dawg.symbolOf(getLetter(row, col));
+        return node < 0 || symbol < 0 || symbol >= 26 ? -1 : lexicon.child(node, symbol);
+    }
+
+    private void setAnchor(int row, int col, boolean anchor) {
+        if (anchor) {
+            anchorRows[row] |= (short) (1 << col);
+            anchorColumns[col] |= (short) (1 << row);
+        } else {
+            anchorRows[row] &= (short) ~(1 << col);
+            anchorColumns[col] &= (short) ~(1 << row);
+        }
+    }
+
+    private static int slot(boolean horizontal, int row, int col) {
+        return (horizontal ? 0 : SQUARES) + index(row, col);
+    }
+
+    /**
+     * Буквы, которые можно поставить в пустую клетку при ходе в направлении
+     * horizontal, не сломав перпендикулярное слово (бит 0 - 'A')
+     */
+    public int getCrossCheck(boolean horizontal, int row, int col) {
+        return crossChecks[slot(horizontal, row, col)] & ALL_LETTERS;
+    }
+
+    public boolean allows(boolean horizontal, int row, int col, char letter) {
+        int symbol = Dawg.symbolOf(letter);
+        return symbol >= 0 && symbol < 26 && (crossChecks[slot(horizontal, row, col)] & (1 << symbol)) != 0;
+    }
+
+    /**
+     * Образует ли фишка в этой клетке перпендикулярное слово
+     */
+    public boolean hasCrossWord(boolean horizontal, int row, int col) {
+        return (crossChecks[slot(horizontal, row, col)] & HAS_CROSS_WORD) != 0;
+    }
+
+    /**
+     * Сумма очков уже лежащих фишек перпендикулярного слова (без премий)
+     */
+    public int getCrossScore(boolean horizontal, int row, int col) {
+        return crossScores[slot(horizontal, row, col)];
+    }
+
+    /**
+     * Перпендикулярное слово, которое образует letter в пустой клетке
+     */
+    public String getCrossWord(boolean horizontal, int row, int col, char letter) {
+        char[] word = new char[SIZE];
+        return new String(word, 0, copyCrossWord(horizontal, row, col, letter, word, 0));
+    }
+
+    /**
+     * Записывает поперечное слово в out начиная с offset и возвращает его длину
+     */
+    public int copyCrossWord(boolean horizontal, int row, int col, char letter, char[] out, int offset) {
+        int dr = horizontal ? 1 : 0;
+        int dc = horizontal ? 0 : 1;
+        int r = row;
+        int c = col;
+        while (r - dr >= 0 && c - dc >= 0 && isOccupied(r - dr, c - dc)) {
+            r -= dr;
+            c -= dc;
+        }
+        int length = 0;
+        for (; r < SIZE && c < SIZE && (isOccupied(r, c) || (r == row && c == col)); r += dr, c += dc) {
+            out[offset + length++] = r == row && c == col ? letter : Character.toUpperCase(getLetter(r, c));
+        }
+        return length;
+    }
+
+    public Dawg getLexicon() {
+        return lexicon;
+    }
+
+    public boolean isOccupied(int row, int col) {
+        return (rows[row] & (1 << col)) != 0;
+    }
+
+    /**
+     * Буква клетки (строчная для бланка) или 0 для пустой клетки
+     */
+    public char getLetter(int row, int col) {
+        return (char) letters[index(row, col)];
+    }
+
+    public boolean isBlank(int row, int col) {
+        byte letter = letters[index(row, col)];
+        return letter != 0 && (letter < 'A' || letter > 'Z');
+    }
+
+    /**
+     * Очки фишки в клетке без премий (бланк - 0)
+     */
+    public int getTileValue(int row, int col) {
+        return isBlank(row, col) ? 0 : TileBag.getLetterValue(getLetter(row, col));
+    }
+
+    /**
+     * Маска занятых клеток строки (line - номер строки) или столбца
+     */
+    public int lineMask(boolean horizontal, int line) {
+        return (horizontal ? rows[line] : columns[line]) & FULL_LINE;
+    }
+
+    /**
+     * 64-битный хэш Зобриста расположения фишек
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    public boolean isEmpty() {
+        return tileCount == 0;
+    }
+
+    public int getTileCount() {
+        return tileCount;
+    }
+
+    /**
+     * Якоря линии: пустые клетки рядом с фишками, а на пустой доске - центр
+     */
+    public int anchorMask(boolean horizontal, int line) {
+        return (horizontal ? anchorRows[line] : anchorColumns[line]) & FULL_LINE;
+    }
+
+    public boolean isAnchor(int row, int col) {
+        return (anchorRows[row] & (1 << col)) != 0;
+    }
+
+    public int getAnchorCount() {
+        int count = 0;
+        for (short row : anchorRows) {
+            count += Integer.bitCount(row & FULL_LINE);
+        }
+        return count;
+    }
+
+    public boolean hasAdjacentTile(int row, int col) {
+        return tileCount > 0 && isAnchor(row, col);
+    }
+
+    /**
+     * Слово помещается, если не расходится с уже лежащими буквами, касается
+     * их (или доска пуста) и не продолжается фишками до или после себя -
+     * иначе на доске получилось бы другое, более длинное слово. Касание
+     * проверяется одной маской на всю линию.
+     */
+    public boolean canPlace(CharSequence word, int row, int col, boolean horizontal) {
+        return canPlace(word.toString().toCharArray(), word.length(), row, col, horizontal);
+    }
+
+    /**
+     * То же для первых length букв массива word, без создания объектов
+     */
+    public boolean canPlace(char[] word, int length, int row, int col, boolean horizontal) {
+        int line = horizontal ? row : col;
+        int start = horizontal ? col : row;
+        int own = lineMask(horizontal, line);
+        int span = ((1 << length) - 1) << start;
+        int before = start > 0 ? 1 << (start - 1) : 0;
+        int after = (1 << (start + length)) & FULL_LINE;
+        if ((own & (before | after)) != 0) {
+            return false;
+        }
+
+        for (int occupied = own & span; occupied != 0; occupied &= occupied - 1) {
+            int pos = Integer.numberOfTrailingZeros(occupied);
+            int r = horizontal ? row : pos;
+            int c = horizontal ? pos : col;
+            if (Character.toUpperCase(getLetter(r, c)) != Character.toUpperCase(word[pos - start])) {
+                return false;
+            }
+        }
+
+        return isEmpty() || (own & span) != 0 || (anchorMask(horizontal, line) & span) != 0;
+    }
+
+    public boolean coversCenter(int length, int row, int col, boolean horizontal) {
+        if (horizontal) {
+            return row == CENTER && col <= CENTER && CENTER < col + length;
+        }
+        return col == CENTER && row <= CENTER && CENTER < row + length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Board && Arrays.equals(letters, ((Board) o).letters);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                char letter = getLetter(r, c);
+                sb.append(letter == 0 ? '.' : letter);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
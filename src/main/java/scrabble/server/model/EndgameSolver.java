@@ -0,0 +1,413 @@
+package scrabble.server.model;
+
+import scrabble.utils.Lexicon;
+import scrabble.utils.TileBag;
+import scrabble.utils.Zobrist;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Точный перебор эндшпиля для двух игроков, когда мешок пуст и обе стойки
+ * известны. Negamax с альфа-бета отсечением по разнице очков, итеративным
+ * углублением и таблицей транспозиций на примитивных массивах (ключ - хэш
+ * Зобриста доски, стоек, очереди хода и пасов). Ходы упорядочиваются:
+ * лучший ход из таблицы, затем по убыванию очков, пас - последним. Ход в
+ * таблице - его номер в списке ходов позиции, отсортированном по
+ * {@link MoveGenerator.Placement#BY_SCORE}; порядок полный, так что номер
+ * однозначно восстанавливает ход.
+ *
+ * Кто выложил все фишки, получает удвоенную сумму фишек соперника; после
+ * двух пасов подряд каждый теряет сумму своих фишек.
+ */
+public class EndgameSolver {
+    public static final int DEFAULT_TABLE_BITS = 18;
+    private static final int MAX_DEPTH = 32;
+    private static final int INFINITY = 1_000_000;
+    private static final int BLANK = Zobrist.TILE_TYPES - 1;
+    private static final int PASS = -1;
+    private static final int NO_MOVE = -2;
+    private static final long PASS_KEY = 0x9E3779B97F4A7C15L;
+
+    private static final byte EXACT = 1;
+    private static final byte LOWER = 2;
+    private static final byte UPPER = 3;
+
+    private static final AtomicInteger THREADS = new AtomicInteger();
+    private static final ExecutorService SOLVERS = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), task -> {
+                Thread thread = new Thread(task, "endgame-solver-" + THREADS.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final Lexicon lexicon;
+    private final MoveGenerator generator;
+    private final int tableMask;
+    private final long[] tableKeys;
+    private final int[] tableValues;
+    private final int[] tableMoves;
+    private final byte[] tableDepths;
+    private final byte[] tableFlags;
+
+    private long deadline;
+    private long nodes;
+    private boolean cutOff;
+
+    public EndgameSolver(Lexicon lexicon) {
+        this(lexicon, DEFAULT_TABLE_BITS);
+    }
+
+    public EndgameSolver(Lexicon lexicon, int tableBits) {
+        this.lexicon = lexicon;
+        this.generator = new MoveGenerator(lexicon.getDictionary(), lexicon.getGaddag());
+        int size = 1 << tableBits;
+        this.tableMask = size - 1;
+        this.tableKeys = new long[size];
+        this.tableValues = new int[size];
+        this.tableMoves = new int[size];
+        this.tableDepths = new byte[size];
+        this.tableFlags = new byte[size];
+    }
+
+    public Lexicon getLexicon() {
+        return lexicon;
+    }
+
+    /**
+     * Итог перебора. Разница очков - с точки зрения игрока, который ходит,
+     * до конца партии; exact - перебор дошёл до конца во всех ветках.
+     * Глубина 0 - бюджет кончился раньше первой итерации: тогда ход - самый
+     * дорогой, а разница - только его очки.
+     */
+    public static final class Result {
+        private final MoveGenerator.Placement bestMove;
+        private final int spread;
+        private final int depth;
+        private final boolean exact;
+        private final long nodes;
+        private final long elapsedMillis;
+        private final List<String> variation;
+
+        Result(MoveGenerator.Placement bestMove, int spread, int depth, boolean exact, long nodes,
+               long elapsedMillis, List<String> variation) {
+            this.bestMove = bestMove;
+            this.spread = spread;
+            this.depth = depth;
+            this.exact = exact;
+            this.nodes = nodes;
+            this.elapsedMillis = elapsedMillis;
+            this.variation = variation;
+        }
+
+        /**
+         * Лучший ход или null, если лучше спасовать
+         */
+        public MoveGenerator.Placement getBestMove() { return bestMove; }
+        public int getSpread() { return spread; }
+        public int getDepth() { return depth; }
+        public boolean isExact() { return exact; }
+        public boolean isComplete() { return depth > 0; }
+        public long getNodes() { return nodes; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        /**
+         * Главная линия игры обеих сторон, начиная с лучшего хода
+         */
+        public List<String> getVariation() { return variation; }
+
+        @Override
+        public String toString() {
+            return String.format("Endgame %s: spread %+d, depth %d%s, %d nodes in %d ms, line %s",
+                    bestMove != null ? bestMove : "PASS", spread, depth,
+                    exact ? " (exact)" : depth == 0 ? " (incomplete)" : "",
+                    nodes, elapsedMillis, variation);
+        }
+    }
+
+    /**
+     * Решает эндшпиль в фоновом потоке; через budgetMillis возвращает лучший
+     * ход последней законченной итерации углубления. Таблица транспозиций у
+     * решателя одна, поэтому параллельные эндшпили требуют разных решателей.
+     */
+    public CompletableFuture<Result> solveAsync(Board board, List<Character> rack, List<Character> opponentRack,
+                                                long budgetMillis) {
+        Board position = board.copy();
+        List<Character> own = new ArrayList<>(rack);
+        List<Character> opponent = new ArrayList<>(opponentRack);
+        return CompletableFuture.supplyAsync(() -> solve(position, own, opponent, budgetMillis), SOLVERS);
+    }
+
+    public synchronized Result solve(Board board, List<Character> rack, List<Character> opponentRack,
+                                     long budgetMillis) {
+        long start = System.nanoTime();
+        deadline = start + budgetMillis * 1_000_000;
+        nodes = 0;
+        int[] own = Rack.countTiles(rack);
+        int[] opponent = Rack.countTiles(opponentRack);
+
+        int bestMove = NO_MOVE;
+        int bestSpread = 0;
+        int depthReached = 0;
+        boolean exact = false;
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+            cutOff = false;
+            try {
+                bestSpread = search(board, own, opponent, 0, 0, depth, -INFINITY, INFINITY);
+            } catch (SearchTimeout e) {
+                break;
+            }
+            int entry = probe(positionKey(board, own, opponent, 0, 0));
+            bestMove = entry >= 0 ? tableMoves[entry] : PASS;
+            depthReached = depth;
+            if (!cutOff) {
+                exact = true;
+                break;
+            }
+        }
+
+        List<String> variation = new ArrayList<>();
+        MoveGenerator.Placement move;
+        if (bestMove == NO_MOVE) {
+            // не закончилась ни одна итерация: самый дорогой ход лучше паса
+            List<MoveGenerator.Placement> moves = sortedMoves(board, own);
+            move = moves.isEmpty() ? null : moves.get(0);
+            bestSpread = move != null ? move.getScore() : 0;
+            variation.add(move != null ? move.toString() : "PASS");
+        } else {
+            int root = probe(positionKey(board, own, opponent, 0, 0));
+            move = principalVariation(board, own, opponent, MAX_DEPTH, variation);
+            if (variation.isEmpty() || root < 0 || tableMoves[root] != bestMove) {
+                // таблицу успела переписать прерванная итерация
+                move = bestMove == PASS ? null : findMove(board, own, bestMove);
+                variation.clear();
+                variation.add(move != null ? move.toString() : "PASS");
+            }
+        }
+        Result result = new Result(move, bestSpread, depthReached, exact, nodes,
+                (System.nanoTime() - start) / 1_000_000, variation);
+        System.out.println(result);
+        return result;
+    }
+
+    private int search(Board board, int[] own, int[] opponent, int seat, int passes, int depth, int alpha, int beta) {
+        if ((++nodes & 255) == 0 && System.nanoTime() > deadline) {
+            throw SearchTimeout.INSTANCE;
+        }
+        if (passes >= 2) {
+            return rackValue(opponent) - rackValue(own);
+        }
+        if (depth == 0) {
+            cutOff = true;
+            return 0;
+        }
+
+        long key = positionKey(board, own, opponent, seat, passes);
+        int entry = probe(key);
+        int hashMove = NO_MOVE;
+        if (entry >= 0) {
+            hashMove = tableMoves[entry];
+            if (tableDepths[entry] >= depth) {
+                int value = tableValues[entry];
+                byte flag = tableFlags[entry];
+                if (flag == EXACT
+                        || (flag == LOWER && value >= beta)
+                        || (flag == UPPER && value <= alpha)) {
+                    cutOff |= tableDepths[entry] < MAX_DEPTH;
+                    return value;
+                }
+            }
+        }
+        boolean outerCutOff = cutOff;
+        cutOff = false;
+
+        List<MoveGenerator.Placement> moves = sortedMoves(board, own);
+        if (hashMove >= moves.size()) {
+            hashMove = NO_MOVE;
+        }
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = PASS;
+        // сначала ход из таблицы, затем остальные по порядку и пас, если он не был первым
+        for (int n = -1; n <= moves.size(); n++) {
+            int i;
+            if (n < 0) {
+                if (hashMove == NO_MOVE) {
+                    continue;
+                }
+                i = hashMove;
+            } else if (n == moves.size()) {
+                if (hashMove == PASS) {
+                    continue;
+                }
+                i = PASS;
+            } else {
+                if (n == hashMove) {
+                    continue;
+                }
+                i = n;
+            }
+
+            int value;
+            if (i == PASS) {
+                value = -search(board, opponent, own, 1 - seat, passes + 1, depth - 1, -beta, -alpha);
+            } else {
+                MoveGenerator.Placement move = moves.get(i);
+                Board next = board.copy();
+                int[] rest = own.clone();
+                move.applyTo(next, rest);
+                if (isEmpty(rest)) {
+                    value = move.getScore() + 2 * rackValue(opponent);
+                } else {
+                    // окно соперника сдвинуто на очки хода
+                    int score = move.getScore();
+                    value = score - search(next, opponent, rest, 1 - seat, 0, depth - 1, score - beta, score - alpha);
+                }
+            }
+
+            if (value > best) {
+                best = value;
+                bestMove = i;
+            }
+            if (value > alpha) {
+                alpha = value;
+            }
+            if (alpha >= beta) {
+                break;
+            }
+        }
+
+        byte flag = best <= originalAlpha ? UPPER : best >= beta ? LOWER : EXACT;
+        // поддерево без обрезки по глубине годится для поиска любой глубины
+        store(key, best, bestMove, cutOff ? depth : MAX_DEPTH, flag);
+        cutOff |= outerCutOff;
+        return best;
+    }
+
+    /**
+     * Ходы главной линии по таблице транспозиций
+     */
+    private MoveGenerator.Placement principalVariation(Board board, int[] own, int[] opponent, int depth,
+                                                       List<String> variation) {
+        MoveGenerator.Placement first = null;
+        int seat = 0;
+        int passes = 0;
+        for (int ply = 0; ply < depth && passes < 2; ply++) {
+            int entry = probe(positionKey(board, own, opponent, seat, passes));
+            if (entry < 0) {
+                break;
+            }
+            int index = tableMoves[entry];
+            if (index == PASS) {
+                variation.add("PASS");
+                passes++;
+            } else {
+                MoveGenerator.Placement move = findMove(board, own, index);
+                if (move == null) {
+                    break;
+                }
+                if (ply == 0) {
+                    first = move;
+                }
+                variation.add(move.toString());
+                board = board.copy();
+                own = own.clone();
+                move.applyTo(board, own);
+                passes = 0;
+                if (isEmpty(own)) {
+                    break;
+                }
+            }
+            int[] swap = own;
+            own = opponent;
+            opponent = swap;
+            seat = 1 - seat;
+        }
+        return first;
+    }
+
+    private List<MoveGenerator.Placement> sortedMoves(Board board, int[] rack) {
+        List<MoveGenerator.Placement> moves = generator.generate(board, Rack.lettersOf(rack));
+        moves.sort(MoveGenerator.Placement.BY_SCORE);
+        return moves;
+    }
+
+    /**
+     * Ход по номеру в отсортированном списке ходов позиции или null
+     */
+    private MoveGenerator.Placement findMove(Board board, int[] rack, int index) {
+        List<MoveGenerator.Placement> moves = sortedMoves(board, rack);
+        return index >= 0 && index < moves.size() ? moves.get(index) : null;
+    }
+
+    private static long positionKey(Board board, int[] own, int[] opponent, int seat, int passes) {
+        long key = board.getHash() ^ rackHash(own, seat) ^ rackHash(opponent, 1 - seat) ^ Zobrist.turn(seat);
+        return passes > 0 ? key ^ PASS_KEY : key;
+    }
+
+    private static long rackHash(int[] rack, int seat) {
+        long hash = 0;
+        for (int type = 0; type < rack.length; type++) {
+            char letter = type == BLANK ? '?' : (char) ('A' + type);
+            for (int copy = 0; copy < rack[type]; copy++) {
+                hash ^= Zobrist.rackTile(seat, letter, copy);
+            }
+        }
+        return hash;
+    }
+
+    private int probe(long key) {
+        int index = (int) (key ^ (key >>> 32)) & tableMask;
+        return tableFlags[index] != 0 && tableKeys[index] == key ? index : -1;
+    }
+
+    /**
+     * Замещение по глубине: более глубокий результат не затирается более мелким
+     */
+    private void store(long key, int value, int move, int depth, byte flag) {
+        int index = (int) (key ^ (key >>> 32)) & tableMask;
+        if (tableFlags[index] != 0 && tableKeys[index] != key && tableDepths[index] > depth) {
+            return;
+        }
+        tableKeys[index] = key;
+        tableValues[index] = value;
+        tableMoves[index] = move;
+        tableDepths[index] = (byte) depth;
+        tableFlags[index] = flag;
+    }
+
+    private static int rackValue(int[] rack) {
+        int value = 0;
+        for (int type = 0; type < BLANK; type++) {
+            value += rack[type] * TileBag.getLetterValue((char) ('A' + type));
+        }
+        return value;
+    }
+
+    private static boolean isEmpty(int[] rack) {
+        for (int count : rack) {
+            if (count != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Исчерпан бюджет времени; без стека, чтобы выход из глубокой рекурсии был дешёвым
+     */
+    private static final class SearchTimeout extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        static final SearchTimeout INSTANCE = new SearchTimeout();
+
+        private SearchTimeout() {
+            super("Endgame search budget exhausted", null, false, false);
+        }
+    }
+}
@@ -1,5 +1,10 @@
 package scrabble.server.model;
 
+import scrabble.utils.Lexicon;
+import scrabble.utils.LexiconRegistry;
+import scrabble.utils.TileBag;
+import scrabble.utils.Zobrist;
+
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -10,14 +15,21 @@ public class GameRoom {
     private final Set<String> playerIds;
     private final Set<String> readyPlayers;
     private final String creatorId;
+    private final LexiconRegistry.Handle lexicon;
     private boolean gameStarted;
     private String currentPlayerId;
+    private Board board;
+    private TileBag tileBag;
+    private final Map<String, Rack> racks = new LinkedHashMap<>();
+    private final Map<String, Integer> scores = new HashMap<>();
+    private int scorelessTurns;
 
-    public GameRoom(String id, String name, int maxPlayers, String creatorId) {
+    public GameRoom(String id, String name, int maxPlayers, String creatorId, LexiconRegistry.Handle lexicon) {
         this.id = id;
         this.name = name;
         this.maxPlayers = maxPlayers;
         this.creatorId = creatorId;
+        this.lexicon = lexicon;
         this.playerIds = ConcurrentHashMap.newKeySet();
         this.readyPlayers = ConcurrentHashMap.newKeySet();
         this.gameStarted = false;
@@ -28,6 +40,12 @@ public class GameRoom {
     public String getName() { return name; }
     public int getMaxPlayers() { return maxPlayers; }
     public String getCreatorId() { return creatorId; }
+    public String getLexiconName() { return lexicon.getName(); }
+
+    /**
+     * Текущая версия словаря комнаты; после перезагрузки словаря - уже новая
+     */
+    public Lexicon getLexicon() { return lexicon.get(); }
     public boolean isGameStarted() { return gameStarted; }
     public String getCurrentPlayerId() { return currentPlayerId; }
 
@@ -79,6 +97,18 @@ public class GameRoom {
             gameStarted = true;
             List<String> playersList = new ArrayList<>(playerIds);
             currentPlayerId = playersList.get(new Random().nextInt(playersList.size()));
+
+            board = new Board(getLexicon().getDictionary());
+            tileBag = new TileBag();
+            racks.clear();
+            scores.clear();
+            scorelessTurns = 0;
+            for (int seat = 0; seat < playersList.size(); seat++) {
+                Rack rack = new Rack(seat);
+                rack.refill(tileBag);
+                racks.put(playersList.get(seat), rack);
+                scores.put(playersList.get(seat), 0);
+            }
             return true;
         }
         return false;
@@ -94,4 +124,142 @@ public class GameRoom {
     public boolean isPlayerReady(String playerId) {
         return readyPlayers.contains(playerId);
     }
+
+    /**
+     * Доска партии; до начала игры - null. Если словарь комнаты перезагрузили,
+     * поперечные проверки доски пересчитываются по новой версии.
+     */
+    public synchronized Board getBoard() {
+        if (board != null) {
+            Lexicon current = getLexicon();
+            if (board.getLexicon() != current.getDictionary()) {
+                board = board.withLexicon(current.getDictionary());
+                System.out.println("Rebuilt board of room " + id + " for reloaded lexicon " + current);
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Убирает со стойки игрока выложенные буквы (строчная - бланк) и добирает
+     * фишки из мешка комнаты. Ход к этому моменту уже проверен по стойке,
+     * поэтому недостающая фишка - ошибка сервера.
+     */
+    public synchronized void useTiles(String playerId, CharSequence letters) {
+        Rack rack = racks.get(playerId);
+        if (rack == null) {
+            throw new IllegalStateException("Player " + playerId + " has no rack in room " + id);
+        }
+        for (int i = 0; i < letters.length(); i++) {
+            if (rack.removeLetter(letters.charAt(i)) == null) {
+                throw new IllegalStateException("Rack of " + playerId + " has no tile for " + letters.charAt(i));
+            }
+        }
+        rack.refill(tileBag);
+    }
+
+    public synchronized TileBag getTileBag() {
+        return tileBag;
+    }
+
+    public synchronized Rack getRack(String playerId) {
+        return racks.get(playerId);
+    }
+
+    /**
+     * Стойка соперника в партии двух игроков; иначе null
+     */
+    public synchronized Rack getOpponentRack(String playerId) {
+        if (racks.size() != 2 || !racks.containsKey(playerId)) {
+            return null;
+        }
+        for (Map.Entry<String, Rack> entry : racks.entrySet()) {
+            if (!entry.getKey().equals(playerId)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Засчитывает сыгранный ход: очки игроку, серия пасов прерывается
+     */
+    public synchronized void recordMove(String playerId, int score) {
+        scores.merge(playerId, score, Integer::sum);
+        scorelessTurns = 0;
+    }
+
+    public synchronized void recordPass() {
+        scorelessTurns++;
+    }
+
+    /**
+     * Партия окончена, когда мешок пуст и кто-то выложил все фишки,
+     * или когда все игроки подряд спасовали
+     */
+    public synchronized boolean isGameOver() {
+        if (tileBag == null) {
+            return false;
+        }
+        if (scorelessTurns >= racks.size()) {
+            return true;
+        }
+        if (tileBag.remainingTiles() > 0) {
+            return false;
+        }
+        for (Rack rack : racks.values()) {
+            if (rack.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Итоговые очки: у каждого вычитается стоимость оставшихся фишек,
+     * а выложивший все фишки получает сумму чужих остатков
+     */
+    public synchronized Map<String, Integer> getFinalScores() {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        int leftover = 0;
+        String wentOut = null;
+        for (Map.Entry<String, Rack> entry : racks.entrySet()) {
+            int value = 0;
+            for (TileBag.Tile tile : entry.getValue().getTiles()) {
+                value += tile.getPoints();
+            }
+            leftover += value;
+            if (entry.getValue().isEmpty()) {
+                wentOut = entry.getKey();
+            }
+            result.put(entry.getKey(), scores.getOrDefault(entry.getKey(), 0) - value);
+        }
+        if (wentOut != null) {
+            result.merge(wentOut, leftover, Integer::sum);
+        }
+        return result;
+    }
+
+    public synchronized long getBoardHash() {
+        return board != null ? board.getHash() : 0;
+    }
+
+    /**
+     * Хэш Зобриста всей позиции: доска, стойки игроков, мешок и очередь хода.
+     * Пересчитывается из готовых хэшей частей, без обхода клеток и фишек.
+     */
+    public synchronized long getPositionHash() {
+        if (board == null) {
+            return 0;
+        }
+        long hash = board.getHash() ^ tileBag.getHash();
+        for (Rack rack : racks.values()) {
+            hash ^= rack.getHash();
+        }
+        Rack current = racks.get(currentPlayerId);
+        if (current != null) {
+            hash ^= Zobrist.turn(current.getSeat());
+        }
+        return hash;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,416 @@
+package scrabble.server.model;
+
+import scrabble.client.model.GameState;
+import scrabble.utils.Dawg;
+import scrabble.utils.Gaddag;
+import scrabble.utils.PremiumSquares;
+import scrabble.utils.TileBag;
+import scrabble.utils.Zobrist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Генератор размещений на основе GADDAG: для каждой якорной клетки (пустой
+ * клетки рядом с фишкой, либо центра на пустой доске) перебирает слова по
+ * строкам и по столбцам с учётом поперечных слов. Каждое размещение сразу
+ * получает очки и список образованных слов.
+ *
+ * Линии не зависят друг от друга, поэтому для анализа и ботов генерация
+ * может идти параллельно: каждая строка и каждый столбец с якорями -
+ * отдельная задача ForkJoinPool со своей копией линии и стойки.
+ */
+public class MoveGenerator {
+    private static final int SIZE = 15;
+    private static final int RACK_SIZE = 7;
+    private static final int BINGO_BONUS = 50;
+
+    /**
+     * При меньшем числе якорей накладные расходы на задачи больше выигрыша
+     */
+    static final int PARALLEL_THRESHOLD = 12;
+
+    private final Dawg dictionary;
+    private final Gaddag gaddag;
+
+    public MoveGenerator(Dawg dictionary, Gaddag gaddag) {
+        this.dictionary = dictionary;
+        this.gaddag = gaddag;
+    }
+
+    public static class Placement {
+        /**
+         * По убыванию очков, при равенстве - по слову и клетке, чтобы лучшие
+         * N ходов не зависели от порядка, в котором их нашли
+         */
+        public static final Comparator<Placement> BY_SCORE = Comparator
+                .comparingInt(Placement::getScore).reversed()
+                .thenComparing(Placement::getWord)
+                .thenComparingInt(Placement::getRow)
+                .thenComparingInt(Placement::getCol)
+                .thenComparing(Placement::isHorizontal);
+
+        private final int row;
+        private final int col;
+        private final boolean horizontal;
+        private final String word;
+        private final int score;
+        private final int tilesPlaced;
+        private final List<String> formedWords;
+
+        public Placement(int row, int col, boolean horizontal, String word,
+                         int score, int tilesPlaced, List<String> formedWords) {
+            this.row = row;
+            this.col = col;
+            this.horizontal = horizontal;
+            this.word = word;
+            this.score = score;
+            this.tilesPlaced = tilesPlaced;
+            this.formedWords = formedWords;
+        }
+
+        public int getRow() { return row; }
+        public int getCol() { return col; }
+        public boolean isHorizontal() { return horizontal; }
+
+        /**
+         * Слово целиком; буквы, поставленные бланком, - строчные
+         */
+        public String getWord() { return word; }
+
+        /**
+         * Очки хода вместе с поперечными словами и бонусом за все семь фишек
+         */
+        public int getScore() { return score; }
+        public int getTilesPlaced() { return tilesPlaced; }
+
+        /**
+         * Основное слово и все поперечные слова, которые образует ход
+         */
+        public List<String> getFormedWords() { return formedWords; }
+
+        /**
+         * Ставит новые фишки хода на доску и вычитает их из счётчиков стойки
+         * по индексам {@link scrabble.utils.Zobrist#tileType}; строчная буква - бланк
+         */
+        void applyTo(Board board, int[] rack) {
+            removeTilesFrom(rack, board);
+            for (int i = 0; i < word.length(); i++) {
+                int r = horizontal ? row : row + i;
+                int c = horizontal ? col + i : col;
+                if (!board.isOccupied(r, c)) {
+                    board.place(r, c, word.charAt(i));
+                }
+            }
+        }
+
+        /**
+         * Вычитает из счётчиков стойки фишки, которые ход ставит на пустые клетки board
+         */
+        void removeTilesFrom(int[] rack, Board board) {
+            for (int i = 0; i < word.length(); i++) {
+                int r = horizontal ? row : row + i;
+                int c = horizontal ? col + i : col;
+                if (!board.isOccupied(r, c)) {
+                    char letter = word.charAt(i);
+                    rack[Character.isLowerCase(letter) ? Zobrist.TILE_TYPES - 1 : Zobrist.tileType(letter)]--;
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return word + " " + (char) ('A' + col) + (row + 1) + (horizontal ? " across" : " down") + " " + score;
+        }
+    }
+
+    public List<Placement> generate(GameState.BoardCell[][] board, List<Character> rack) {
+        return generate(Board.fromCells(board, dictionary), rack);
+    }
+
+    /**
+     * Перебирает все допустимые размещения фишек стойки на доске grid (0 - пустая клетка).
+     * Пробел или '?' в стойке считается бланком.
+     */
+    public List<Placement> generate(char[][] grid, List<Character> rack) {
+        Board board = new Board(dictionary);
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                if (grid[r][c] != 0) {
+                    board.place(r, c, grid[r][c]);
+                }
+            }
+        }
+        return generate(board, rack);
+    }
+
+    /**
+     * Поперечные проверки и соседство берутся из доски, а не считаются заново
+     */
+    public List<Placement> generate(Board board, List<Character> rack) {
+        int[] counts = countRack(rack);
+        char[][] lines = rowsOf(board);
+        char[][] columns = transpose(lines);
+
+        List<Placement> placements = new ArrayList<>();
+        for (int index = 0; index < SIZE; index++) {
+            generateLine(board, lines, index, counts, true, placements);
+        }
+        for (int index = 0; index < SIZE; index++) {
+            generateLine(board, columns, index, counts, false, placements);
+        }
+        return placements;
+    }
+
+    /**
+     * Лучшие limit ходов по {@link Placement#BY_SCORE}. Строки и столбцы
+     * обрабатываются параллельно в pool, каждая задача держит свою кучу
+     * лучших ходов, кучи сливаются при объединении задач без общих замков.
+     * На доске с небольшим числом якорей генерация идёт в текущем потоке.
+     */
+    public List<Placement> generateBest(Board board, List<Character> rack, int limit, ForkJoinPool pool) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        if (pool.getParallelism() < 2 || board.getAnchorCount() < PARALLEL_THRESHOLD) {
+            TopMoves best = new TopMoves(limit);
+            best.addAll(generate(board, rack));
+            return best.toList();
+        }
+
+        int[] counts = countRack(rack);
+        char[][] lines = rowsOf(board);
+        char[][] columns = transpose(lines);
+        int[] units = new int[2 * SIZE];
+        int unitCount = 0;
+        for (int index = 0; index < SIZE; index++) {
+            if (board.anchorMask(true, index) != 0) {
+                units[unitCount++] = index;
+            }
+            if (board.anchorMask(false, index) != 0) {
+                units[unitCount++] = SIZE + index;
+            }
+        }
+        return pool.invoke(new LineTask(board, lines, columns, counts, units, 0, unitCount, limit)).toList();
+    }
+
+    private final class LineTask extends RecursiveTask<TopMoves> {
+        private static final long serialVersionUID = 1L;
+
+        private final Board board;
+        private final char[][] lines;
+        private final char[][] columns;
+        private final int[] rack;
+        private final int[] units;
+        private final int from;
+        private final int to;
+        private final int limit;
+
+        LineTask(Board board, char[][] lines, char[][] columns, int[] rack, int[] units,
+                 int from, int to, int limit) {
+            this.board = board;
+            this.lines = lines;
+            this.columns = columns;
+            this.rack = rack;
+            this.units = units;
+            this.from = from;
+            this.to = to;
+            this.limit = limit;
+        }
+
+        @Override
+        protected TopMoves compute() {
+            if (to - from <= 1) {
+                TopMoves best = new TopMoves(limit);
+                if (from < to) {
+                    int unit = units[from];
+                    List<Placement> placements = new ArrayList<>();
+                    if (unit < SIZE) {
+                        generateLine(board, lines, unit, rack.clone(), true, placements);
+                    } else {
+                        generateLine(board, columns, unit - SIZE, rack.clone(), false, placements);
+                    }
+                    best.addAll(placements);
+                }
+                return best;
+            }
+
+            int middle = (from + to) >>> 1;
+            LineTask left = new LineTask(board, lines, columns, rack, units, from, middle, limit);
+            left.fork();
+            TopMoves best = new LineTask(board, lines, columns, rack, units, middle, to, limit).compute();
+            best.addAll(left.join());
+            return best;
+        }
+    }
+
+    /**
+     * Ограниченная куча лучших ходов: в вершине худший из сохранённых
+     */
+    private static final class TopMoves {
+        private final int limit;
+        private final PriorityQueue<Placement> heap;
+
+        TopMoves(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(Math.min(limit, 64), Placement.BY_SCORE.reversed());
+        }
+
+        void add(Placement placement) {
+            if (heap.size() < limit) {
+                heap.add(placement);
+            } else if (Placement.BY_SCORE.compare(placement, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(placement);
+            }
+        }
+
+        void addAll(Iterable<Placement> placements) {
+            for (Placement placement : placements) {
+                add(placement);
+            }
+        }
+
+        void addAll(TopMoves other) {
+            addAll(other.heap);
+        }
+
+        List<Placement> toList() {
+            List<Placement> result = new ArrayList<>(heap);
+            result.sort(Placement.BY_SCORE);
+            return result;
+        }
+    }
+
+    private static int[] countRack(List<Character> rack) {
+        int[] counts = new int[Dawg.ALPHABET];
+        for (Character tile : rack) {
+            int symbol = Dawg.symbolOf(tile);
+            counts[symbol >= 0 && symbol < 26 ? symbol : Gaddag.BLANK]++;
+        }
+        return counts;
+    }
+
+    private static char[][] rowsOf(Board board) {
+        char[][] lines = new char[SIZE][SIZE];
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                if (board.isOccupied(r, c)) {
+                    lines[r][c] = Character.toUpperCase(board.getLetter(r, c));
+                }
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Перебор одной линии. Массив lines только читается: поиск идёт по копии
+     * линии, так что линии можно обрабатывать в разных потоках
+     */
+    private void generateLine(Board board, char[][] lines, int index, int[] rack, boolean horizontal,
+                              List<Placement> out) {
+        int anchorMask = board.anchorMask(horizontal, index);
+        if (anchorMask == 0) {
+            return;
+        }
+        int[] crossChecks = new int[SIZE];
+        for (int pos = 0; pos < SIZE; pos++) {
+            crossChecks[pos] = horizontal
+                    ? board.getCrossCheck(true, index, pos)
+                    : board.getCrossCheck(false, pos, index);
+        }
+
+        final char[] original = lines[index];
+        final char[] line = original.clone();
+        for (int mask = anchorMask; mask != 0; mask &= mask - 1) {
+            int anchor = Integer.numberOfTrailingZeros(mask);
+            gaddag.generate(line, crossChecks, anchorMask, anchor, rack, (start, end, letters) -> {
+                if (!horizontal && isDuplicateSingleTile(lines, original, index, start, end)) {
+                    return;
+                }
+                out.add(createPlacement(board, horizontal, index, original, start, end, letters));
+            });
+        }
+    }
+
+    /**
+     * Считает очки так же, как WordChecker при проверке хода: уже лежащие
+     * фишки без премий, поперечные слова - по заранее посчитанным суммам доски
+     */
+    private Placement createPlacement(Board board, boolean horizontal, int index, char[] original,
+                                      int start, int end, char[] letters) {
+        String word = new String(letters, start, end - start + 1);
+        List<String> formedWords = null;
+        int wordScore = 0;
+        int wordMultiplier = 1;
+        int crossScore = 0;
+        int placed = 0;
+
+        for (int pos = start; pos <= end; pos++) {
+            int row = horizontal ? index : pos;
+            int col = horizontal ? pos : index;
+            if (original[pos] != 0) {
+                wordScore += board.getTileValue(row, col);
+                continue;
+            }
+
+            placed++;
+            char letter = letters[pos];
+            int square = Board.index(row, col);
+            int letterScore = Character.isUpperCase(letter)
+                    ? TileBag.getLetterValue(letter) * PremiumSquares.letterMultiplier(square)
+                    : 0;
+            int multiplier = PremiumSquares.wordMultiplier(square);
+            wordScore += letterScore;
+            wordMultiplier *= multiplier;
+
+            if (board.hasCrossWord(horizontal, row, col)) {
+                crossScore += (board.getCrossScore(horizontal, row, col) + letterScore) * multiplier;
+                if (formedWords == null) {
+                    formedWords = new ArrayList<>(2);
+                    formedWords.add(word);
+                }
+                formedWords.add(board.getCrossWord(horizontal, row, col, letter));
+            }
+        }
+
+        int score = wordScore * wordMultiplier + crossScore + (placed == RACK_SIZE ? BINGO_BONUS : 0);
+        List<String> words = formedWords != null ? formedWords : Collections.singletonList(word);
+        return horizontal
+                ? new Placement(index, start, true, word, score, placed, words)
+                : new Placement(start, index, false, word, score, placed, words);
+    }
+
+    /**
+     * Одна фишка с соседями по строке уже найдена при горизонтальном проходе
+     */
+    private boolean isDuplicateSingleTile(char[][] lines, char[] original, int index, int start, int end) {
+        int placed = -1;
+        for (int pos = start; pos <= end; pos++) {
+            if (original[pos] == 0) {
+                if (placed >= 0) {
+                    return false;
+                }
+                placed = pos;
+            }
+        }
+        return placed >= 0
+                && ((index > 0 && lines[index - 1][placed] != 0)
+                || (index < SIZE - 1 && lines[index + 1][placed] != 0));
+    }
+
+    private static char[][] transpose(char[][] grid) {
+        char[][] result = new char[SIZE][SIZE];
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                result[c][r] = grid[r][c];
+            }
+        }
+        return result;
+    }
+}
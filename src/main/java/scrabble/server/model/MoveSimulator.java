@@ -0,0 +1,196 @@
+package scrabble.server.model;
+
+import scrabble.utils.Lexicon;
+import scrabble.utils.Zobrist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Оценка ходов симуляцией Монте-Карло. Для каждого хода-кандидата много
+ * раз случайно раздаются невидимые фишки (мешок и стойка соперника), затем
+ * стороны по очереди делают несколько самых дорогих ходов; оценка хода -
+ * средняя разница очков за ход и доигрывание.
+ *
+ * Каждый кандидат - отдельная задача пула со своей копией доски, своими
+ * массивами фишек и своим генератором случайных чисел, отщеплённым от
+ * общего зерна, так что результат при одном зерне не зависит от числа
+ * потоков.
+ */
+public class MoveSimulator {
+    public static final int DEFAULT_PLIES = 2;
+
+    private final MoveGenerator generator;
+    private final ForkJoinPool pool;
+
+    public MoveSimulator(Lexicon lexicon) {
+        this(lexicon, ForkJoinPool.commonPool());
+    }
+
+    public MoveSimulator(Lexicon lexicon, ForkJoinPool pool) {
+        this.generator = new MoveGenerator(lexicon.getDictionary(), lexicon.getGaddag());
+        this.pool = pool;
+    }
+
+    /**
+     * Оценка одного кандидата: средняя разница очков с точки зрения игрока,
+     * включая очки самого хода
+     */
+    public static final class Evaluation {
+        public static final Comparator<Evaluation> BY_SPREAD = Comparator
+                .comparingDouble(Evaluation::getAverageSpread).reversed()
+                .thenComparing(Evaluation::getMove, MoveGenerator.Placement.BY_SCORE);
+
+        private final MoveGenerator.Placement move;
+        private final int iterations;
+        private final double averageSpread;
+
+        Evaluation(MoveGenerator.Placement move, int iterations, double averageSpread) {
+            this.move = move;
+            this.iterations = iterations;
+            this.averageSpread = averageSpread;
+        }
+
+        public MoveGenerator.Placement getMove() { return move; }
+        public int getIterations() { return iterations; }
+        public double getAverageSpread() { return averageSpread; }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %+.1f", move, averageSpread);
+        }
+    }
+
+    /**
+     * Итог симуляции: кандидаты по убыванию оценки и пропускная способность
+     */
+    public static final class Report {
+        private final List<Evaluation> evaluations;
+        private final long iterations;
+        private final long elapsedNanos;
+
+        Report(List<Evaluation> evaluations, long elapsedNanos) {
+            long total = 0;
+            for (Evaluation evaluation : evaluations) {
+                total += evaluation.getIterations();
+            }
+            this.evaluations = evaluations;
+            this.iterations = total;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public List<Evaluation> getEvaluations() { return evaluations; }
+
+        /**
+         * Лучший по симуляции ход или null, если кандидатов не было
+         */
+        public MoveGenerator.Placement getBestMove() {
+            return evaluations.isEmpty() ? null : evaluations.get(0).getMove();
+        }
+
+        public long getIterationCount() { return iterations; }
+        public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+
+        public double getIterationsPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : iterations * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Simulated %d iterations of %d moves in %d ms (%.0f iterations/sec)",
+                    iterations, evaluations.size(), getElapsedMillis(), getIterationsPerSecond());
+        }
+    }
+
+    /**
+     * Симулирует каждый ход из candidates iterations раз на plies ходов
+     * вперёд. unseen - невидимые игроку фишки по индексам
+     * {@link Zobrist#tileType}: содержимое мешка и стойки соперника.
+     */
+    public Report simulate(Board board, List<Character> rack, int[] unseen, List<MoveGenerator.Placement> candidates,
+                           int iterations, int plies, long seed) {
+        long start = System.nanoTime();
+        int[] own = Rack.countTiles(rack);
+        SplittableRandom random = new SplittableRandom(seed);
+
+        List<ForkJoinTask<Evaluation>> tasks = new ArrayList<>(candidates.size());
+        for (MoveGenerator.Placement candidate : candidates) {
+            SplittableRandom taskRandom = random.split();
+            tasks.add(pool.submit(() -> evaluate(board, own, unseen, candidate, iterations, plies, taskRandom)));
+        }
+        List<Evaluation> evaluations = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<Evaluation> task : tasks) {
+            evaluations.add(task.join());
+        }
+        evaluations.sort(Evaluation.BY_SPREAD);
+
+        Report report = new Report(evaluations, System.nanoTime() - start);
+        System.out.println(report);
+        return report;
+    }
+
+    /**
+     * Доска и стойки читаются, но не меняются: каждая итерация начинает со своих копий
+     */
+    private Evaluation evaluate(Board board, int[] rack, int[] unseen, MoveGenerator.Placement candidate,
+                                int iterations, int plies, SplittableRandom random) {
+        long totalSpread = 0;
+        for (int i = 0; i < iterations; i++) {
+            Board position = board.copy();
+            int[] bag = unseen.clone();
+            int[] own = rack.clone();
+            int[] opponent = new int[Zobrist.TILE_TYPES];
+            draw(bag, opponent, Rack.SIZE, random);
+
+            candidate.applyTo(position, own);
+            int spread = candidate.getScore();
+            draw(bag, own, Rack.SIZE - size(own), random);
+
+            for (int ply = 0; ply < plies && size(own) > 0; ply++) {
+                int[] mover = ply % 2 == 0 ? opponent : own;
+                List<MoveGenerator.Placement> moves = generator.generate(position, Rack.lettersOf(mover));
+                if (moves.isEmpty()) {
+                    continue;
+                }
+                MoveGenerator.Placement move = Collections.min(moves, MoveGenerator.Placement.BY_SCORE);
+                move.applyTo(position, mover);
+                spread += ply % 2 == 0 ? -move.getScore() : move.getScore();
+                if (size(mover) == 0) {
+                    break;
+                }
+                draw(bag, mover, Rack.SIZE - size(mover), random);
+            }
+            totalSpread += spread;
+        }
+        return new Evaluation(candidate, iterations, iterations == 0 ? 0.0 : (double) totalSpread / iterations);
+    }
+
+    /**
+     * Перекладывает до count случайных фишек из from в to
+     */
+    private static void draw(int[] from, int[] to, int count, SplittableRandom random) {
+        int remaining = size(from);
+        for (int i = 0; i < count && remaining > 0; i++, remaining--) {
+            int pick = random.nextInt(remaining);
+            int type = 0;
+            while (pick >= from[type]) {
+                pick -= from[type++];
+            }
+            from[type]--;
+            to[type]++;
+        }
+    }
+
+    private static int size(int[] counts) {
+        int size = 0;
+        for (int count : counts) {
+            size += count;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,148 @@
+package scrabble.server.model;
+
+import scrabble.utils.TileBag;
+import scrabble.utils.Zobrist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Стойка игрока на сервере. Вместе с фишками хранит число фишек каждой буквы
+ * и хэш Зобриста, который зависит от места игрока за столом, но не от
+ * порядка фишек.
+ */
+public class Rack {
+    public static final int SIZE = 7;
+
+    private final int seat;
+    private final List<TileBag.Tile> tiles = new ArrayList<>(SIZE);
+    private final int[] counts = new int[Zobrist.TILE_TYPES];
+    private long hash;
+
+    public Rack(int seat) {
+        this.seat = seat;
+    }
+
+    public int getSeat() {
+        return seat;
+    }
+
+    public void add(TileBag.Tile tile) {
+        tiles.add(tile);
+        hash ^= Zobrist.rackTile(seat, tile.getLetter(), counts[Zobrist.tileType(tile.getLetter())]++);
+    }
+
+    /**
+     * Убирает фишку по идентификатору; null, если такой фишки на стойке нет
+     */
+    public TileBag.Tile remove(String tileId) {
+        for (int i = 0; i < tiles.size(); i++) {
+            TileBag.Tile tile = tiles.get(i);
+            if (tile.getId().equals(tileId)) {
+                tiles.remove(i);
+                hash ^= Zobrist.rackTile(seat, tile.getLetter(), --counts[Zobrist.tileType(tile.getLetter())]);
+                return tile;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Убирает фишку с буквой letter; строчная буква, как на доске, - бланк.
+     * null, если такой фишки на стойке нет.
+     */
+    public TileBag.Tile removeLetter(char letter) {
+        int type = Character.isLowerCase(letter) ? Zobrist.TILE_TYPES - 1 : Zobrist.tileType(letter);
+        if (counts[type] == 0) {
+            return null;
+        }
+        for (TileBag.Tile tile : tiles) {
+            if (Zobrist.tileType(tile.getLetter()) == type) {
+                return remove(tile.getId());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Добирает фишки из мешка до полной стойки, пока они там есть
+     */
+    public void refill(TileBag bag) {
+        while (tiles.size() < SIZE) {
+            TileBag.Tile tile = bag.drawTile();
+            if (tile == null) {
+                return;
+            }
+            add(tile);
+        }
+    }
+
+    public List<TileBag.Tile> getTiles() {
+        return Collections.unmodifiableList(tiles);
+    }
+
+    /**
+     * Буквы стойки для генератора ходов; бланк - ' '
+     */
+    public List<Character> getLetters() {
+        List<Character> letters = new ArrayList<>(tiles.size());
+        for (TileBag.Tile tile : tiles) {
+            letters.add(tile.getLetter());
+        }
+        return letters;
+    }
+
+    public int count(char letter) {
+        return counts[Zobrist.tileType(letter)];
+    }
+
+    public int size() {
+        return tiles.size();
+    }
+
+    public boolean isEmpty() {
+        return tiles.isEmpty();
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Копия счётчиков фишек по индексам {@link Zobrist#tileType}
+     */
+    public int[] getCounts() {
+        return counts.clone();
+    }
+
+    /**
+     * Счётчики фишек по индексам {@link Zobrist#tileType}
+     */
+    static int[] countTiles(List<Character> letters) {
+        int[] counts = new int[Zobrist.TILE_TYPES];
+        for (Character letter : letters) {
+            counts[Zobrist.tileType(letter)]++;
+        }
+        return counts;
+    }
+
+    /**
+     * Буквы по счётчикам для генератора ходов; бланк - '?'
+     */
+    static List<Character> lettersOf(int[] counts) {
+        List<Character> letters = new ArrayList<>(SIZE);
+        for (int type = 0; type < counts.length; type++) {
+            char letter = type == Zobrist.TILE_TYPES - 1 ? '?' : (char) ('A' + type);
+            for (int i = 0; i < counts[type]; i++) {
+                letters.add(letter);
+            }
+        }
+        return letters;
+    }
+
+    @Override
+    public String toString() {
+        return tiles.toString();
+    }
+}
@@ -1,29 +1,44 @@
 package scrabble.server.model;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 import scrabble.server.network.ClientHandler;
 import scrabble.utils.DictionaryLoader;
+import scrabble.utils.LexiconRegistry;
 
 public class ServerModel {
     private final Map<String, GameRoom> rooms;
     private final Map<String, ClientHandler> connectedClients;
     private final WordChecker wordChecker;
-    private final Set<String> dictionary;
+    private final LexiconRegistry lexicons;
 
     public ServerModel() {
         this.rooms = new ConcurrentHashMap<>();
         this.connectedClients = new ConcurrentHashMap<>();
         this.wordChecker = new WordChecker(this);
-        this.dictionary = DictionaryLoader.loadDictionary();
+        this.lexicons = new LexiconRegistry();
     }
 
-    public synchronized GameRoom createRoom(String roomName, int maxPlayers, String creatorId) {
-        String roomId = generateRoomId(roomName);
-        GameRoom room = new GameRoom(roomId, roomName, maxPlayers, creatorId);
-        rooms.put(roomId, room);
-        return room;
+    public GameRoom createRoom(String roomName, int maxPlayers, String creatorId) throws IOException {
+        return createRoom(roomName, maxPlayers, creatorId, null);
+    }
+
+    /**
+     * Создаёт комнату со словарём dictionaryName (null - словарь по умолчанию).
+     * Словарь загружается вне общего замка, чтобы не задерживать остальные комнаты.
+     */
+    public GameRoom createRoom(String roomName, int maxPlayers, String creatorId, String dictionaryName)
+            throws IOException {
+        LexiconRegistry.Handle lexicon = lexicons.acquire(dictionaryName);
+        synchronized (this) {
+            String roomId = generateRoomId(roomName);
+            GameRoom room = new GameRoom(roomId, roomName, maxPlayers, creatorId, lexicon);
+            rooms.put(roomId, room);
+            return room;
+        }
     }
 
     public synchronized boolean joinRoom(String roomId, String playerId) {
@@ -39,11 +54,17 @@ public class ServerModel {
         if (room != null) {
             room.removePlayer(playerId);
             if (room.isEmpty()) {
-                rooms.remove(roomId);
+                removeRoom(room);
             }
         }
     }
 
+    private void removeRoom(GameRoom room) {
+        if (rooms.remove(room.getId()) != null) {
+            lexicons.release(room.getLexiconName());
+        }
+    }
+
     public synchronized List<String> getAvailableRooms() {
         List<String> available = new ArrayList<>();
         for (GameRoom room : rooms.values()) {
@@ -63,11 +84,14 @@ public class ServerModel {
         connectedClients.put(clientId, handler);
     }
 
-    public void unregisterClient(String clientId) {
+    public synchronized void unregisterClient(String clientId) {
         connectedClients.remove(clientId);
         
-        for (GameRoom room : rooms.values()) {
+        for (GameRoom room : new ArrayList<>(rooms.values())) {
             room.removePlayer(clientId);
+            if (room.isEmpty()) {
+                removeRoom(room);
+            }
         }
     }
 
@@ -83,8 +107,24 @@ public class ServerModel {
         return connectedClients.values();
     }
 
+    public LexiconRegistry getLexicons() {
+        return lexicons;
+    }
+
+    /**
+     * Перезагружает словари в фоне; комнаты продолжают играть на старых
+     * версиях, пока новые не готовы. Кэш проверок после этого сбрасывается,
+     * чтобы не держать старые словари в памяти.
+     */
+    public List<CompletableFuture<LexiconRegistry.ReloadReport>> reloadDictionaries() {
+        List<CompletableFuture<LexiconRegistry.ReloadReport>> reports = lexicons.reloadAll();
+        CompletableFuture.allOf(reports.toArray(new CompletableFuture<?>[0]))
+                .whenComplete((ignored, error) -> wordChecker.getValidationCache().clear());
+        return reports;
+    }
+
     public boolean isValidWord(String word) {
-        return dictionary.contains(word.toLowerCase());
+        return DictionaryLoader.isValidWord(word);
     }
 
     private String generateRoomId(String roomName) {
@@ -0,0 +1,142 @@
+package scrabble.server.model;
+
+import scrabble.utils.Lexicon;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Ограниченный LRU-кэш результатов проверки ходов. Ключ - хэши Зобриста доски
+ * и стойки, словарь, размещение слова и фишки, так что повторная отправка того же хода
+ * (например, после ошибки) обходится без словаря и подсчёта очков.
+ * Результаты хранятся копиями: вызывающий код может менять полученный объект.
+ */
+public class ValidationCache {
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final int capacity;
+    private final Map<Key, WordChecker.ValidationResult> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ValidationCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ValidationCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, WordChecker.ValidationResult> eldest) {
+                return size() > ValidationCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Ключ кэша. Словарь сравнивается по ссылке: после перезагрузки словаря
+     * старые записи перестают совпадать и со временем вытесняются.
+     */
+    public static final class Key {
+        private final long boardHash;
+        private final long rackHash;
+        private final Lexicon lexicon;
+        private final String word;
+        private final int row;
+        private final int col;
+        private final boolean horizontal;
+        private final List<String> tileIds;
+        private final int hashCode;
+
+        public Key(long boardHash, long rackHash, Lexicon lexicon, String word, int row, int col,
+                   boolean horizontal, List<String> tileIds) {
+            this.boardHash = boardHash;
+            this.rackHash = rackHash;
+            this.lexicon = lexicon;
+            this.word = word;
+            this.row = row;
+            this.col = col;
+            this.horizontal = horizontal;
+            this.tileIds = tileIds == null ? null : List.copyOf(tileIds);
+            this.hashCode = Objects.hash(boardHash, rackHash, System.identityHashCode(lexicon), word, row, col,
+                    horizontal, this.tileIds);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return boardHash == other.boardHash && rackHash == other.rackHash && lexicon == other.lexicon
+                    && row == other.row && col == other.col && horizontal == other.horizontal
+                    && Objects.equals(word, other.word) && Objects.equals(tileIds, other.tileIds);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * Результат из кэша или, при промахе, вычисленный validation. Проверка
+     * идёт вне замка, так что медленный ход не задерживает остальные комнаты.
+     */
+    public WordChecker.ValidationResult get(Key key, Supplier<WordChecker.ValidationResult> validation) {
+        WordChecker.ValidationResult cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached.copy();
+        }
+
+        misses.increment();
+        WordChecker.ValidationResult result = validation.get();
+        synchronized (entries) {
+            entries.put(key, result.copy());
+        }
+        return result;
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Validation cache: %d/%d entries, %d hits, %d misses (%.1f%% hit rate)",
+                size(), capacity, getHits(), getMisses(), getHitRate() * 100);
+    }
+}
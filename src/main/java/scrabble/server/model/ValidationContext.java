@@ -0,0 +1,303 @@
+package scrabble.server.model;
+
+import scrabble.utils.Lexicon;
+import scrabble.utils.PremiumSquares;
+import scrabble.utils.TileBag;
+import scrabble.utils.Zobrist;
+
+/**
+ * Переиспользуемое состояние проверки хода, по одному на поток. Слово и все
+ * образованные слова пишутся в заранее выделенные буферы, результат - код
+ * статуса и примитивные поля, так что проверка хода не создаёт объектов.
+ * Строки и {@link WordChecker.ValidationResult} появляются только в
+ * {@link #toResult()}, когда ответ отправляется клиенту.
+ *
+ * Контекст принадлежит потоку: его нужно прочитать до следующей проверки
+ * в этом же потоке и не передавать другим потокам.
+ */
+public final class ValidationContext {
+    public static final int VALID = 0;
+    public static final int EMPTY_WORD = 1;
+    public static final int NOT_LETTERS = 2;
+    public static final int TOO_SHORT = 3;
+    public static final int OUT_OF_BOUNDS = 4;
+    public static final int DOES_NOT_FIT_HORIZONTALLY = 5;
+    public static final int DOES_NOT_FIT_VERTICALLY = 6;
+    public static final int CANNOT_PLACE = 7;
+    public static final int MISSES_CENTER = 8;
+    public static final int MISSING_TILES = 9;
+    public static final int INVALID_WORD = 10;
+
+    /**
+     * Вместо числа фишек: не сверять фишки игрока (архивные партии)
+     */
+    public static final int ANY_TILES = -1;
+
+    private static final int SIZE = Board.SIZE;
+    private static final int RACK_SIZE = 7;
+    private static final int BINGO_BONUS = 50;
+    // основное слово и по поперечному слову на каждую клетку линии
+    private static final int MAX_WORDS = SIZE + 1;
+
+    private static final ThreadLocal<ValidationContext> CONTEXTS = ThreadLocal.withInitial(ValidationContext::new);
+
+    private final char[] word = new char[SIZE];
+    private final char[] words = new char[MAX_WORDS * SIZE];
+    private final int[] wordLengths = new int[MAX_WORDS];
+    private final int[] rackLeft = new int[Zobrist.TILE_TYPES];
+    private int wordLength;
+    private int row;
+    private int col;
+    private boolean horizontal;
+    private int blankMask;
+    private int wordCount;
+    private int status;
+    private int score;
+    private int tilesPlaced;
+
+    private ValidationContext() {
+    }
+
+    /**
+     * Контекст текущего потока
+     */
+    public static ValidationContext current() {
+        return CONTEXTS.get();
+    }
+
+    /**
+     * Проверяет ход и считает очки. Пробелы по краям слова игнорируются,
+     * регистр букв не важен. tileCount - сколько фишек игрок отдаёт под ход;
+     * оно должно совпасть с числом пустых клеток под словом.
+     *
+     * @return {@link #VALID} или код ошибки
+     */
+    public int validate(CharSequence text, int row, int col, boolean horizontal, Board board, int tileCount,
+                        Lexicon lexicon) {
+        return validate(text, 0, row, col, horizontal, board, tileCount, lexicon);
+    }
+
+    /**
+     * То же, но буквы с установленным битом в blankMask (бит i - i-я буква
+     * слова) ставятся бланками и не приносят очков
+     */
+    public int validate(CharSequence text, int blankMask, int row, int col, boolean horizontal, Board board,
+                        int tileCount, Lexicon lexicon) {
+        return check(text, blankMask, row, col, horizontal, board, tileCount, null, lexicon);
+    }
+
+    /**
+     * Проверка хода со стойкой игрока: rack - число фишек каждого вида по
+     * индексам {@link Zobrist#tileType}. Каждая новая буква должна найтись
+     * на стойке, причём бланк идёт только туда, где он отмечен в blankMask.
+     */
+    public int validate(CharSequence text, int blankMask, int row, int col, boolean horizontal, Board board,
+                        int[] rack, Lexicon lexicon) {
+        return check(text, blankMask, row, col, horizontal, board, ANY_TILES, rack, lexicon);
+    }
+
+    private int check(CharSequence text, int blankMask, int row, int col, boolean horizontal, Board board,
+                      int tileCount, int[] rack, Lexicon lexicon) {
+        this.row = row;
+        this.col = col;
+        this.horizontal = horizontal;
+        this.blankMask = blankMask;
+        wordLength = 0;
+        wordCount = 0;
+        score = 0;
+        tilesPlaced = 0;
+
+        int start = 0;
+        int end = text == null ? 0 : text.length();
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return status = EMPTY_WORD;
+        }
+        for (int i = start; i < end; i++) {
+            char c = Character.toUpperCase(text.charAt(i));
+            if (c < 'A' || c > 'Z') {
+                return status = NOT_LETTERS;
+            }
+            if (wordLength < SIZE) {
+                word[wordLength] = c;
+            }
+            wordLength++;
+        }
+
+        if (wordLength < 2) {
+            return status = TOO_SHORT;
+        }
+        if (row < 0 || row >= SIZE || col < 0 || col >= SIZE) {
+            return status = OUT_OF_BOUNDS;
+        }
+        if (horizontal && col + wordLength > SIZE) {
+            return status = DOES_NOT_FIT_HORIZONTALLY;
+        }
+        if (!horizontal && row + wordLength > SIZE) {
+            return status = DOES_NOT_FIT_VERTICALLY;
+        }
+
+        int line = horizontal ? row : col;
+        int span = ((1 << wordLength) - 1) << (horizontal ? col : row);
+        int newTiles = wordLength - Integer.bitCount(board.lineMask(horizontal, line) & span);
+        if (newTiles == 0 || !board.canPlace(word, wordLength, row, col, horizontal)) {
+            return status = CANNOT_PLACE;
+        }
+        if (board.isEmpty() && !board.coversCenter(wordLength, row, col, horizontal)) {
+            return status = MISSES_CENTER;
+        }
+        if (tileCount != ANY_TILES && tileCount != newTiles) {
+            return status = MISSING_TILES;
+        }
+        if (rack != null && !rackCovers(rack, board)) {
+            return status = MISSING_TILES;
+        }
+
+        System.arraycopy(word, 0, words, 0, wordLength);
+        wordLengths[0] = wordLength;
+        wordCount = 1;
+        if (!lexicon.isValidWord(word, 0, wordLength)) {
+            return status = INVALID_WORD;
+        }
+
+        int wordScore = 0;
+        int wordMultiplier = 1;
+        int crossScore = 0;
+        for (int i = 0; i < wordLength; i++) {
+            int r = horizontal ? row : row + i;
+            int c = horizontal ? col + i : col;
+            if (board.isOccupied(r, c)) {
+                wordScore += board.getTileValue(r, c);
+                continue;
+            }
+
+            tilesPlaced++;
+            boolean blank = (blankMask & (1 << i)) != 0;
+            char letter = blank ? Character.toLowerCase(word[i]) : word[i];
+            int square = Board.index(r, c);
+            int letterScore = blank ? 0 : TileBag.getLetterValue(letter) * PremiumSquares.letterMultiplier(square);
+            int multiplier = PremiumSquares.wordMultiplier(square);
+            wordScore += letterScore;
+            wordMultiplier *= multiplier;
+
+            if (!board.hasCrossWord(horizontal, r, c)) {
+                continue;
+            }
+            wordLengths[wordCount] = board.copyCrossWord(horizontal, r, c, letter, words, wordCount * SIZE);
+            wordCount++;
+            if (!board.allows(horizontal, r, c, letter)) {
+                return status = INVALID_WORD;
+            }
+            crossScore += (board.getCrossScore(horizontal, r, c) + letterScore) * multiplier;
+        }
+
+        score = wordScore * wordMultiplier + crossScore + (tilesPlaced == RACK_SIZE ? BINGO_BONUS : 0);
+        return status = VALID;
+    }
+
+    /**
+     * Хватает ли фишек стойки на все пустые клетки под словом
+     */
+    private boolean rackCovers(int[] rack, Board board) {
+        System.arraycopy(rack, 0, rackLeft, 0, rackLeft.length);
+        for (int i = 0; i < wordLength; i++) {
+            int r = horizontal ? row : row + i;
+            int c = horizontal ? col + i : col;
+            if (board.isOccupied(r, c)) {
+                continue;
+            }
+            int type = (blankMask & (1 << i)) != 0 ? Zobrist.TILE_TYPES - 1 : word[i] - 'A';
+            if (--rackLeft[type] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ставит на доску новые фишки последнего допустимого хода
+     */
+    public void applyTo(Board board) {
+        if (status != VALID) {
+            throw new IllegalStateException("Cannot apply a rejected move");
+        }
+        for (int i = 0; i < wordLength; i++) {
+            int r = horizontal ? row : row + i;
+            int c = horizontal ? col + i : col;
+            if (!board.isOccupied(r, c)) {
+                board.place(r, c, (blankMask & (1 << i)) != 0 ? Character.toLowerCase(word[i]) : word[i]);
+            }
+        }
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public boolean isValid() {
+        return status == VALID;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getTilesPlaced() {
+        return tilesPlaced;
+    }
+
+    public boolean isBingo() {
+        return status == VALID && tilesPlaced == RACK_SIZE;
+    }
+
+    /**
+     * Число образованных слов; при {@link #INVALID_WORD} последнее из них - недопустимое
+     */
+    public int getFormedWordCount() {
+        return wordCount;
+    }
+
+    public String getFormedWord(int index) {
+        return new String(words, index * SIZE, wordLengths[index]);
+    }
+
+    public String getMessage() {
+        switch (status) {
+            case VALID:
+                return isBingo() ? "BINGO! +50 points for using all tiles!" : "Word accepted! Score: " + score;
+            case EMPTY_WORD: return "Word cannot be empty";
+            case NOT_LETTERS: return "Word must contain only English letters";
+            case TOO_SHORT: return "Word must contain at least 2 letters";
+            case OUT_OF_BOUNDS: return "Coordinates are out of board bounds";
+            case DOES_NOT_FIT_HORIZONTALLY: return "Word doesn't fit horizontally";
+            case DOES_NOT_FIT_VERTICALLY: return "Word doesn't fit vertically";
+            case CANNOT_PLACE: return "Cannot place word at the specified position";
+            case MISSES_CENTER: return "First move must pass through the center cell (H8)";
+            case MISSING_TILES: return "You don't have the required tiles for this move";
+            case INVALID_WORD: return "Invalid word formed: " + getFormedWord(wordCount - 1);
+            default: return "Unknown validation status " + status;
+        }
+    }
+
+    /**
+     * Результат для отправки клиенту; недопустимое слово в список слов не входит
+     */
+    public WordChecker.ValidationResult toResult() {
+        WordChecker.ValidationResult result = new WordChecker.ValidationResult();
+        result.setValid(status == VALID);
+        result.setMessage(getMessage());
+        int count = status == INVALID_WORD ? wordCount - 1 : status == VALID ? wordCount : 0;
+        for (int i = 0; i < count; i++) {
+            result.addFormedWord(getFormedWord(i));
+        }
+        if (status == VALID) {
+            result.setScore(score);
+        }
+        return result;
+    }
+}
@@ -1,431 +1,255 @@
 package scrabble.server.model;
 
 import scrabble.client.model.GameState;
+import scrabble.utils.AnagramIndex;
 import scrabble.utils.DictionaryLoader;
+import scrabble.utils.Lexicon;
+import scrabble.utils.PremiumSquares;
+import scrabble.utils.RackLeaves;
 import scrabble.utils.TileBag;
+import scrabble.utils.Zobrist;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public class WordChecker {
-    private final ServerModel serverModel;
-
-    
-    private static final String[][] CELL_TYPES = new String[15][15];
-
-    static {
-        
-        initializeCellTypes();
-    }
-
-    private static void initializeCellTypes() {
-        
-        for (int i = 0; i < 15; i++) {
-            for (int j = 0; j < 15; j++) {
-                CELL_TYPES[i][j] = "";
-            }
-        }
-
-        
-        int[][] twCells = {{0,0}, {0,7}, {0,14}, {7,0}, {7,14}, {14,0}, {14,7}, {14,14}};
-        for (int[] cell : twCells) {
-            CELL_TYPES[cell[0]][cell[1]] = "TW";
-        }
-
-        
-        int[][] dwCells = {{1,1}, {1,13}, {2,2}, {2,12}, {3,3}, {3,11}, {4,4}, {4,10},
-                {10,4}, {10,10}, {11,3}, {11,11}, {12,2}, {12,12}, {13,1}, {13,13}};
-        for (int[] cell : dwCells) {
-            CELL_TYPES[cell[0]][cell[1]] = "DW";
-        }
-
-        
-        CELL_TYPES[7][7] = "DW";
-
-        
-        for (int i = 1; i < 14; i++) {
-            CELL_TYPES[i][i] = "DL";
-            CELL_TYPES[i][14-i] = "DL";
-        }
+    private static final int MAX_IDLE_SOLVERS = Runtime.getRuntime().availableProcessors();
 
-        
-        int[][] dlCells = {{0,3}, {0,11}, {2,6}, {2,8}, {3,0}, {3,7}, {3,14},
-                {6,2}, {6,6}, {6,8}, {6,12}, {7,3}, {7,11},
-                {8,2}, {8,6}, {8,8}, {8,12}, {11,0}, {11,7}, {11,14},
-                {12,6}, {12,8}, {14,3}, {14,11}};
-        for (int[] cell : dlCells) {
-            CELL_TYPES[cell[0]][cell[1]] = "DL";
-        }
+    private final ServerModel serverModel;
+    private final ForkJoinPool pool;
+    private final ValidationCache validationCache = new ValidationCache();
+    // свободные решатели эндшпиля; у каждого своя таблица транспозиций
+    private final Deque<EndgameSolver> idleSolvers = new ArrayDeque<>();
 
-        
-        int[][] tlCells = {{1,5}, {1,9}, {5,1}, {5,5}, {5,9}, {5,13},
-                {9,1}, {9,5}, {9,9}, {9,13}, {13,5}, {13,9}};
-        for (int[] cell : tlCells) {
-            CELL_TYPES[cell[0]][cell[1]] = "TL";
-        }
+    public WordChecker(ServerModel serverModel) {
+        this(serverModel, ForkJoinPool.commonPool());
     }
 
-    public WordChecker(ServerModel serverModel) {
+    public WordChecker(ServerModel serverModel, ForkJoinPool pool) {
         this.serverModel = serverModel;
+        this.pool = pool;
     }
 
+    /**
+     * Проверка хода по клеткам клиентской модели. При промахе кэша доска
+     * строится из клеток заново, поэтому на сервере ходы проверяются по
+     * доске комнаты.
+     *
+     * @deprecated используйте {@link #validateMove(String, int, int, boolean, Board, List, String, GameRoom)}
+     *             с {@link GameRoom#getBoard()}
+     */
+    @Deprecated
     public ValidationResult validateMove(String word, int row, int col, boolean horizontal,
                                          GameState.BoardCell[][] board, List<String> tileIds,
                                          String playerId, GameRoom room) {
-        ValidationResult result = new ValidationResult();
-
-        
-        if (!basicValidation(word, row, col, horizontal, result)) {
-            return result;
-        }
-
-        word = word.toUpperCase();
-
-        
-        if (!canPlaceWord(word, row, col, horizontal, board)) {
-            result.setValid(false);
-            result.setMessage("Cannot place word at the specified position");
-            return result;
-        }
-
-        
-        if (isFirstMove(board) && !isCrossingCenter(word, row, col, horizontal)) {
-            result.setValid(false);
-            result.setMessage("First move must pass through the center cell (H8)");
-            return result;
-        }
-
-        
-        if (!validatePlayerTiles(word, tileIds, playerId, room)) {
-            result.setValid(false);
-            result.setMessage("You don't have the required tiles for this move");
-            return result;
-        }
+        Lexicon lexicon = lexiconOf(room);
+        Rack rack = rackOf(room, playerId);
+        ValidationCache.Key key = new ValidationCache.Key(Board.hashOf(board), rack != null ? rack.getHash() : 0,
+                lexicon, word, row, col, horizontal, tileIds);
+        return validationCache.get(key, () -> validate(word, row, col, horizontal,
+                Board.fromCells(board, lexicon.getDictionary()), tileIds, rack, lexicon));
+    }
 
-        
-        List<WordInfo> allNewWords = findAllNewWords(word, row, col, horizontal, board);
-        if (allNewWords.isEmpty() && !isFirstMove(board)) {
-            result.setValid(false);
-            result.setMessage("Word must touch existing words");
-            return result;
-        }
+    public ValidationResult validateMove(String word, int row, int col, boolean horizontal,
+                                         Board board, List<String> tileIds,
+                                         String playerId, GameRoom room) {
+        Lexicon lexicon = lexiconOf(room);
+        Rack rack = rackOf(room, playerId);
+        ValidationCache.Key key = new ValidationCache.Key(board.getHash(), rack != null ? rack.getHash() : 0,
+                lexicon, word, row, col, horizontal, tileIds);
+        return validationCache.get(key, () -> validate(word, row, col, horizontal, board, tileIds, rack, lexicon));
+    }
 
-        
-        for (WordInfo wordInfo : allNewWords) {
-            if (!DictionaryLoader.isValidWord(wordInfo.word)) {
-                result.setValid(false);
-                result.setMessage("Invalid word formed: " + wordInfo.word);
-                return result;
+    /**
+     * Ход игрока на доске комнаты. Клиент присылает каждую выложенную букву
+     * (строчная - бланк) вместе с её клеткой: letters.charAt(i) стоит на
+     * (rows[i], cols[i]). Клетки должны быть пустыми и лежать на одной линии
+     * без пропусков, считая фишки доски; слово целиком восстанавливается по
+     * доске. Буквы должны быть на стойке, которую игроку раздал сервер;
+     * допустимый ход ставится на доску ровно в эти клетки, а его фишки уходят
+     * со стойки, которая добирается из мешка комнаты.
+     */
+    public ValidationResult playMove(GameRoom room, String playerId, String letters, int[] rows, int[] cols) {
+        synchronized (room) {
+            Board board = room.getBoard();
+            if (board == null || room.getRack(playerId) == null) {
+                return rejected(board == null ? "The game has not started yet" : "You are not playing in this room");
             }
-            result.addFormedWord(wordInfo.word);
-        }
-
-        
-        int totalScore = calculateTotalScore(allNewWords, board, word, row, col, horizontal);
 
-        
-        if (word.length() == 7) {
-            totalScore += 50;
-            result.setMessage("BINGO! +50 points for using all tiles!");
-        } else {
-            result.setMessage("Word accepted! Score: " + totalScore);
+            WordInfo move = lineOf(board, letters, rows, cols);
+            if (move == null) {
+                return rejected("Tiles must be letters on empty squares in one line without gaps");
+            }
+            ValidationResult result = validateMove(move.word, move.row, move.col, move.horizontal, board,
+                    null, playerId, room);
+            if (result.isValid()) {
+                room.useTiles(playerId, placeWord(board, move));
+            }
+            return result;
         }
+    }
 
-        result.setValid(true);
-        result.setScore(totalScore);
-
+    private static ValidationResult rejected(String message) {
+        ValidationResult result = new ValidationResult();
+        result.setValid(false);
+        result.setMessage(message);
         return result;
     }
 
-    private boolean basicValidation(String word, int row, int col, boolean horizontal,
-                                    ValidationResult result) {
-        if (word == null || word.trim().isEmpty()) {
-            result.setValid(false);
-            result.setMessage("Word cannot be empty");
-            return false;
-        }
-
-        word = word.trim().toUpperCase();
-
-        
-        if (!word.matches("^[A-Z]+$")) {
-            result.setValid(false);
-            result.setMessage("Word must contain only English letters");
-            return false;
+    /**
+     * Слово хода: выложенные буквы на своих клетках вместе с фишками доски
+     * между ними и вплотную к ним по краям; null, если среди букв есть не
+     * буква, клетки заняты, вне доски, не на одной линии или между ними есть
+     * пустая клетка
+     */
+    private static WordInfo lineOf(Board board, String letters, int[] rows, int[] cols) {
+        int count = letters == null ? 0 : letters.length();
+        if (count == 0 || rows == null || cols == null || rows.length != count || cols.length != count) {
+            return null;
+        }
+        for (int i = 0; i < count; i++) {
+            char letter = Character.toUpperCase(letters.charAt(i));
+            if (letter < 'A' || letter > 'Z' || rows[i] < 0 || rows[i] >= Board.SIZE || cols[i] < 0
+                    || cols[i] >= Board.SIZE || board.isOccupied(rows[i], cols[i])) {
+                return null;
+            }
         }
 
-        if (word.length() < 2) {
-            result.setValid(false);
-            result.setMessage("Word must contain at least 2 letters");
-            return false;
+        boolean horizontal;
+        if (count == 1) {
+            // одна фишка: линия та, где у неё есть сосед
+            int r = rows[0];
+            int c = cols[0];
+            horizontal = (c > 0 && board.isOccupied(r, c - 1)) || (c < Board.SIZE - 1 && board.isOccupied(r, c + 1))
+                    || !((r > 0 && board.isOccupied(r - 1, c)) || (r < Board.SIZE - 1 && board.isOccupied(r + 1, c)));
+        } else {
+            horizontal = rows[1] == rows[0];
         }
+        int line = horizontal ? rows[0] : cols[0];
 
-        if (row < 0 || row >= 15 || col < 0 || col >= 15) {
-            result.setValid(false);
-            result.setMessage("Coordinates are out of board bounds");
-            return false;
+        char[] placed = new char[Board.SIZE];
+        int first = Board.SIZE;
+        int last = -1;
+        for (int i = 0; i < count; i++) {
+            if ((horizontal ? rows[i] : cols[i]) != line) {
+                return null;
+            }
+            int pos = horizontal ? cols[i] : rows[i];
+            if (placed[pos] != 0) {
+                return null;
+            }
+            placed[pos] = letters.charAt(i);
+            first = Math.min(first, pos);
+            last = Math.max(last, pos);
         }
-
-        if (horizontal && col + word.length() > 15) {
-            result.setValid(false);
-            result.setMessage("Word doesn't fit horizontally");
-            return false;
+        while (first > 0 && board.isOccupied(horizontal ? line : first - 1, horizontal ? first - 1 : line)) {
+            first--;
         }
-
-        if (!horizontal && row + word.length() > 15) {
-            result.setValid(false);
-            result.setMessage("Word doesn't fit vertically");
-            return false;
+        while (last < Board.SIZE - 1 && board.isOccupied(horizontal ? line : last + 1, horizontal ? last + 1 : line)) {
+            last++;
         }
 
-        return true;
-    }
-
-    private boolean canPlaceWord(String word, int row, int col, boolean horizontal,
-                                 GameState.BoardCell[][] board) {
-        boolean touchesExisting = false;
-
-        for (int i = 0; i < word.length(); i++) {
-            int r = horizontal ? row : row + i;
-            int c = horizontal ? col + i : col;
-
-            GameState.BoardCell cell = board[r][c];
-
-            
-            if (cell.hasTile() && Character.toUpperCase(cell.getTile().getLetter()) != word.charAt(i)) {
-                return false;
-            }
-
-            
-            if (!cell.hasTile()) {
-                if (hasAdjacentTile(r, c, board)) {
-                    touchesExisting = true;
-                }
+        StringBuilder word = new StringBuilder(last - first + 1);
+        for (int pos = first; pos <= last; pos++) {
+            int r = horizontal ? line : pos;
+            int c = horizontal ? pos : line;
+            if (placed[pos] != 0) {
+                word.append(placed[pos]);
+            } else if (board.isOccupied(r, c)) {
+                word.append(Character.toUpperCase(board.getLetter(r, c)));
             } else {
-                touchesExisting = true;
-            }
-        }
-
-        return isFirstMove(board) || touchesExisting;
-    }
-
-    private boolean hasAdjacentTile(int row, int col, GameState.BoardCell[][] board) {
-        
-        int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
-
-        for (int[] dir : directions) {
-            int newRow = row + dir[0];
-            int newCol = col + dir[1];
-
-            if (newRow >= 0 && newRow < 15 && newCol >= 0 && newCol < 15) {
-                if (board[newRow][newCol].hasTile()) {
-                    return true;
-                }
+                return null;
             }
         }
-
-        return false;
+        return new WordInfo(word.toString(), horizontal ? line : first, horizontal ? first : line, horizontal);
     }
 
-    private boolean isFirstMove(GameState.BoardCell[][] board) {
-        for (int i = 0; i < 15; i++) {
-            for (int j = 0; j < 15; j++) {
-                if (board[i][j].hasTile()) {
-                    return false;
-                }
+    /**
+     * Ставит новые фишки хода на доску и возвращает их буквы
+     */
+    private static String placeWord(Board board, WordInfo move) {
+        StringBuilder placed = new StringBuilder();
+        for (int i = 0; i < move.word.length(); i++) {
+            int r = move.horizontal ? move.row : move.row + i;
+            int c = move.horizontal ? move.col + i : move.col;
+            if (!board.isOccupied(r, c)) {
+                board.place(r, c, move.word.charAt(i));
+                placed.append(move.word.charAt(i));
             }
         }
-        return true;
+        return placed.toString();
     }
 
-    private boolean isCrossingCenter(String word, int row, int col, boolean horizontal) {
-        for (int i = 0; i < word.length(); i++) {
-            int r = horizontal ? row : row + i;
-            int c = horizontal ? col + i : col;
+    private static class WordInfo {
+        final String word;
+        final int row;
+        final int col;
+        final boolean horizontal;
 
-            if (r == 7 && c == 7) {
-                return true;
-            }
+        WordInfo(String word, int row, int col, boolean horizontal) {
+            this.word = word;
+            this.row = row;
+            this.col = col;
+            this.horizontal = horizontal;
         }
-        return false;
     }
 
-    private boolean validatePlayerTiles(String word, List<String> tileIds, String playerId, GameRoom room) {
-        
-        
-
-        if (tileIds == null || tileIds.size() != word.length()) {
-            return false;
-        }
-
-        
-        
-        return true;
+    /**
+     * Проверяет и пересчитывает очки ходов многих архивных партий на пуле
+     * потоков проверки; итог содержит число ходов в секунду
+     */
+    public BatchValidator.Report validateBatch(Stream<BatchValidator.ArchivedMove> moves,
+                                               Lexicon lexicon) {
+        return new BatchValidator(lexicon, pool).validate(moves);
     }
 
-    private List<WordInfo> findAllNewWords(String mainWord, int row, int col, boolean horizontal,
-                                           GameState.BoardCell[][] board) {
-        List<WordInfo> allWords = new ArrayList<>();
-
-        
-        allWords.add(new WordInfo(mainWord, row, col, horizontal));
-
-        
-        for (int i = 0; i < mainWord.length(); i++) {
-            int r = horizontal ? row : row + i;
-            int c = horizontal ? col + i : col;
-
-            
-            if (!board[r][c].hasTile()) {
-                WordInfo perpendicularWord = findPerpendicularWord(r, c, !horizontal, board, mainWord.charAt(i));
-                if (perpendicularWord != null && perpendicularWord.word.length() > 1) {
-                    allWords.add(perpendicularWord);
-                }
-            }
-        }
-
-        return allWords;
-    }
-
-    private WordInfo findPerpendicularWord(int row, int col, boolean horizontal,
-                                           GameState.BoardCell[][] board, char newLetter) {
-        StringBuilder word = new StringBuilder();
-        int startRow = row;
-        int startCol = col;
-
-        
-        int r = row, c = col;
-        if (horizontal) {
-            while (c >= 0) {
-                GameState.BoardCell cell = board[r][c];
-                if (c == col) {
-                    word.insert(0, newLetter);
-                } else if (cell.hasTile()) {
-                    word.insert(0, Character.toUpperCase(cell.getTile().getLetter()));
-                } else {
-                    startCol = c + 1;
-                    break;
-                }
-                c--;
-            }
-            if (c < 0) startCol = 0;
-        } else {
-            while (r >= 0) {
-                GameState.BoardCell cell = board[r][c];
-                if (r == row) {
-                    word.insert(0, newLetter);
-                } else if (cell.hasTile()) {
-                    word.insert(0, Character.toUpperCase(cell.getTile().getLetter()));
-                } else {
-                    startRow = r + 1;
-                    break;
-                }
-                r--;
-            }
-            if (r < 0) startRow = 0;
-        }
-
-        
-        r = horizontal ? row : row + 1;
-        c = horizontal ? col + 1 : col;
-        if (horizontal) {
-            while (c < 15) {
-                GameState.BoardCell cell = board[r][c];
-                if (cell.hasTile()) {
-                    word.append(Character.toUpperCase(cell.getTile().getLetter()));
-                } else {
-                    break;
-                }
-                c++;
-            }
-        } else {
-            while (r < 15) {
-                GameState.BoardCell cell = board[r][c];
-                if (cell.hasTile()) {
-                    word.append(Character.toUpperCase(cell.getTile().getLetter()));
-                } else {
-                    break;
-                }
-                r++;
-            }
-        }
-
-        String formedWord = word.toString().toUpperCase();
-        if (formedWord.length() > 1) {
-            return new WordInfo(formedWord, startRow, startCol, horizontal);
-        }
-
-        return null;
+    /**
+     * Кэш результатов проверки и его счётчики попаданий
+     */
+    public ValidationCache getValidationCache() {
+        return validationCache;
     }
 
-    private int calculateTotalScore(List<WordInfo> allWords, GameState.BoardCell[][] board,
-                                    String mainWord, int mainRow, int mainCol, boolean mainHorizontal) {
-        int totalScore = 0;
-
-        for (WordInfo wordInfo : allWords) {
-            totalScore += calculateWordScore(wordInfo, board);
+    /**
+     * Сама проверка идёт в контексте потока без создания объектов; строки
+     * ответа собираются только здесь, для отправки клиенту. Строчные буквы
+     * слова - бланки. Со стойкой игрока каждая новая буква сверяется с её
+     * фишками; без стойки - только число отданных фишек.
+     */
+    private ValidationResult validate(String word, int row, int col, boolean horizontal, Board board,
+                                      List<String> tileIds, Rack rack, Lexicon lexicon) {
+        ValidationContext context = ValidationContext.current();
+        int blankMask = blankMaskOf(word);
+        if (rack != null) {
+            context.validate(word, blankMask, row, col, horizontal, board, rack.getCounts(), lexicon);
+        } else {
+            context.validate(word, blankMask, row, col, horizontal, board, tileIds == null ? 0 : tileIds.size(),
+                    lexicon);
         }
-
-        return totalScore;
+        return context.toResult();
     }
 
-    private int calculateWordScore(WordInfo wordInfo, GameState.BoardCell[][] board) {
-        int wordScore = 0;
-        int wordMultiplier = 1;
-        boolean hasBlankTile = false;
-
-        for (int i = 0; i < wordInfo.word.length(); i++) {
-            int r = wordInfo.horizontal ? wordInfo.row : wordInfo.row + i;
-            int c = wordInfo.horizontal ? wordInfo.col + i : wordInfo.col;
-
-            char letter = wordInfo.word.charAt(i);
-            int letterScore = TileBag.getLetterValue(letter);
-
-            GameState.BoardCell cell = board[r][c];
-            String cellType = CELL_TYPES[r][c];
-
-            
-            if (cell.hasTile() && cell.getTile().getLetter() == ' ') {
-                hasBlankTile = true;
-                letterScore = 0;
-            }
-
-            
-            if (!cell.hasTile()) {
-                if (cellType.equals("DL")) {
-                    letterScore *= 2;
-                } else if (cellType.equals("TL")) {
-                    letterScore *= 3;
-                } else if (cellType.equals("DW")) {
-                    wordMultiplier *= 2;
-                } else if (cellType.equals("TW")) {
-                    wordMultiplier *= 3;
-                }
+    private static int blankMaskOf(String word) {
+        int mask = 0;
+        String trimmed = word == null ? "" : word.trim();
+        for (int i = 0; i < trimmed.length() && i < Board.SIZE; i++) {
+            if (Character.isLowerCase(trimmed.charAt(i))) {
+                mask |= 1 << i;
             }
-
-            wordScore += letterScore;
-        }
-
-        
-        if (hasBlankTile) {
-            return wordScore;
         }
-
-        return wordScore * wordMultiplier;
+        return mask;
     }
 
-    
-    private static class WordInfo {
-        String word;
-        int row;
-        int col;
-        boolean horizontal;
+    private static Lexicon lexiconOf(GameRoom room) {
+        return room != null ? room.getLexicon() : DictionaryLoader.loadLexicon();
+    }
 
-        WordInfo(String word, int row, int col, boolean horizontal) {
-            this.word = word.toUpperCase();
-            this.row = row;
-            this.col = col;
-            this.horizontal = horizontal;
-        }
+    private static Rack rackOf(GameRoom room, String playerId) {
+        return room != null && playerId != null ? room.getRack(playerId) : null;
     }
 
     public static class ValidationResult {
@@ -448,49 +272,220 @@ public class WordChecker {
         public void setScore(int score) { this.score = score; }
         public void addFormedWord(String word) { formedWords.add(word); }
         public void setFormedWords(List<String> formedWords) { this.formedWords = formedWords; }
-    }
 
-    
+        public ValidationResult copy() {
+            ValidationResult copy = new ValidationResult();
+            copy.valid = valid;
+            copy.message = message;
+            copy.score = score;
+            copy.formedWords = new ArrayList<>(formedWords);
+            return copy;
+        }
+    }
 
     /**
-     * Проверяет, можно ли сделать ход в данной позиции
+     * Есть ли у игрока playerId хотя бы один допустимый ход со стойкой,
+     * которую ему раздал сервер. Пока игра в комнате не началась, позиция
+     * берётся из board.
      */
     public boolean canMakeMove(GameState.BoardCell[][] board, String playerId, GameRoom room) {
-        
-        
-        return true;
+        synchronized (room) {
+            Rack rack = room.getRack(playerId);
+            if (rack == null) {
+                return false;
+            }
+            Board roomBoard = room.getBoard();
+            if (roomBoard == null) {
+                return canMakeMove(board, rack.getLetters(), room);
+            }
+            return !findMoves(roomBoard, rack.getLetters(), lexiconOf(room)).isEmpty();
+        }
+    }
+
+    /**
+     * Есть ли у стойки rack хотя бы один допустимый ход
+     */
+    public boolean canMakeMove(GameState.BoardCell[][] board, List<Character> rack, GameRoom room) {
+        Lexicon lexicon = lexiconOf(room);
+        return !findMoves(Board.fromCells(board, lexicon.getDictionary()), rack, lexicon).isEmpty();
+    }
+
+    /**
+     * Слова, которые стойка rack может выложить на доску, от самого дорогого хода
+     */
+    public List<String> getPossibleWords(GameState.BoardCell[][] board, List<Character> rack, GameRoom room) {
+        Lexicon lexicon = lexiconOf(room);
+        Set<String> words = new LinkedHashSet<>();
+        for (MoveGenerator.Placement move : findMoves(Board.fromCells(board, lexicon.getDictionary()), rack, lexicon)) {
+            words.add(move.getWord().toUpperCase());
+        }
+        return new ArrayList<>(words);
     }
 
     /**
      * Возвращает список возможных слов для данных фишек
      */
     public List<String> getPossibleWords(List<Character> availableLetters) {
-        List<String> possibleWords = new ArrayList<>();
+        return getPossibleWords(availableLetters, DictionaryLoader.loadLexicon());
+    }
 
-        
-        StringBuilder letters = new StringBuilder();
+    public List<String> getPossibleWords(List<Character> availableLetters, Lexicon lexicon) {
+        StringBuilder rack = new StringBuilder();
         for (Character c : availableLetters) {
-            letters.append(Character.toUpperCase(c));
+            rack.append(Character.isLetter(c) ? Character.toUpperCase(c) : AnagramIndex.BLANK);
         }
+        return new ArrayList<>(new TreeSet<>(lexicon.findWordsFromRack(rack.toString())));
+    }
 
-        
-        String lettersStr = letters.toString();
+    /**
+     * Возвращает все допустимые размещения фишек стойки на доске
+     */
+    public List<MoveGenerator.Placement> findPlacements(GameState.BoardCell[][] board, List<Character> rack) {
+        return findPlacements(board, rack, DictionaryLoader.loadLexicon());
+    }
 
-        
-        if (lettersStr.contains("T") && lettersStr.contains("E") && lettersStr.contains("S") && lettersStr.contains("T")) {
-            possibleWords.add("TEST");
-        }
-        if (lettersStr.contains("W") && lettersStr.contains("O") && lettersStr.contains("R") && lettersStr.contains("D")) {
-            possibleWords.add("WORD");
+    public List<MoveGenerator.Placement> findPlacements(GameState.BoardCell[][] board, List<Character> rack,
+                                                        Lexicon lexicon) {
+        return findMoves(Board.fromCells(board, lexicon.getDictionary()), rack, lexicon);
+    }
+
+    /**
+     * Все допустимые ходы стойки rack с очками и образованными словами,
+     * отсортированные по убыванию очков. Доска должна быть построена
+     * на графе того же словаря lexicon.
+     */
+    public List<MoveGenerator.Placement> findMoves(Board board, List<Character> rack, Lexicon lexicon) {
+        List<MoveGenerator.Placement> moves =
+                new MoveGenerator(lexicon.getDictionary(), lexicon.getGaddag()).generate(board, rack);
+        moves.sort(MoveGenerator.Placement.BY_SCORE);
+        return moves;
+    }
+
+    /**
+     * Лучшие limit ходов в том же порядке, что и {@link #findMoves}. Строки
+     * и столбцы доски перебираются параллельно; при малом числе якорей
+     * параллелить невыгодно, и генерация идёт последовательно.
+     */
+    public List<MoveGenerator.Placement> findBestMoves(Board board, List<Character> rack, Lexicon lexicon,
+                                                       int limit) {
+        return new MoveGenerator(lexicon.getDictionary(), lexicon.getGaddag())
+                .generateBest(board, rack, limit, pool);
+    }
+
+    /**
+     * Все ходы стойки rack по убыванию эквити - очков хода вместе с оценкой
+     * фишек, которые останутся на стойке (см. {@link #getEquity}); при
+     * равной эквити - в порядке {@link #findMoves}. Не больше limit ходов.
+     */
+    public List<MoveGenerator.Placement> findMovesByEquity(Board board, List<Character> rack, Lexicon lexicon,
+                                                           int limit) {
+        List<MoveGenerator.Placement> moves = findMoves(board, rack, lexicon);
+        RackLeaves leaves = lexicon.getRackLeaves();
+        int[] counts = Rack.countTiles(rack);
+        float[] equities = new float[moves.size()];
+        for (int i = 0; i < equities.length; i++) {
+            equities[i] = getEquity(board, moves.get(i), counts, leaves);
+        }
+        return IntStream.range(0, moves.size()).boxed()
+                .sorted((a, b) -> Float.compare(equities[b], equities[a]))
+                .limit(limit)
+                .map(moves::get)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Очки хода плюс оценка остатка стойки из таблицы словаря - один поиск
+     * в массиве по рангу набора. rack - счётчики фишек по индексам
+     * {@link Zobrist#tileType}, они не меняются.
+     */
+    public float getEquity(Board board, MoveGenerator.Placement move, int[] rack, RackLeaves leaves) {
+        int[] leave = rack.clone();
+        move.removeTilesFrom(leave, board);
+        return move.getScore() + leaves.getValue(leave);
+    }
+
+    /**
+     * Ранжирует candidates лучших по эквити ходов игрока playerId симуляцией:
+     * невидимые фишки - мешок и стойки остальных игроков. Позиция копируется
+     * под замком комнаты, симуляция идёт в пуле проверки ходов.
+     */
+    public MoveSimulator.Report simulateMoves(GameRoom room, String playerId, int candidates, int iterations) {
+        Board board;
+        List<Character> rack;
+        int[] unseen;
+        Lexicon lexicon;
+        synchronized (room) {
+            board = room.getBoard();
+            lexicon = room.getLexicon();
+            Rack own = room.getRack(playerId);
+            if (board == null || own == null) {
+                throw new IllegalStateException("The game has not started yet");
+            }
+            board = board.copy();
+            rack = own.getLetters();
+            unseen = room.getTileBag().getLetterCounts();
+            for (String otherId : room.getPlayerIds()) {
+                Rack other = room.getRack(otherId);
+                if (other != null && other != own) {
+                    for (Character letter : other.getLetters()) {
+                        unseen[Zobrist.tileType(letter)]++;
+                    }
+                }
+            }
         }
-        if (lettersStr.contains("G") && lettersStr.contains("A") && lettersStr.contains("M") && lettersStr.contains("E")) {
-            possibleWords.add("GAME");
+        return new MoveSimulator(lexicon, pool).simulate(board, rack, unseen,
+                findMovesByEquity(board, rack, lexicon, candidates), iterations, MoveSimulator.DEFAULT_PLIES,
+                System.nanoTime());
+    }
+
+    /**
+     * Точный перебор эндшпиля для игрока playerId в партии двух игроков с
+     * пустым мешком. Позиция копируется под замком комнаты, перебор идёт в
+     * фоновом потоке и укладывается в budgetMillis.
+     */
+    public CompletableFuture<EndgameSolver.Result> solveEndgame(GameRoom room, String playerId, long budgetMillis) {
+        Board board;
+        List<Character> rack;
+        List<Character> opponentRack;
+        Lexicon lexicon;
+        synchronized (room) {
+            board = room.getBoard();
+            lexicon = room.getLexicon();
+            Rack own = room.getRack(playerId);
+            Rack opponent = room.getOpponentRack(playerId);
+            if (board == null || own == null || opponent == null || room.getTileBag().remainingTiles() > 0) {
+                return CompletableFuture.failedFuture(
+                        new IllegalStateException("Endgame needs two players and an empty bag"));
+            }
+            board = board.copy();
+            rack = own.getLetters();
+            opponentRack = opponent.getLetters();
         }
-        if (lettersStr.contains("P") && lettersStr.contains("L") && lettersStr.contains("A") && lettersStr.contains("Y")) {
-            possibleWords.add("PLAY");
+        EndgameSolver solver = acquireSolver(lexicon);
+        return solver.solveAsync(board, rack, opponentRack, budgetMillis)
+                .whenComplete((result, error) -> releaseSolver(solver, room));
+    }
+
+    /**
+     * Свободный решатель для словаря lexicon. Эндшпили разных комнат
+     * решаются параллельно на разных решателях, а таблица транспозиций
+     * освободившегося решателя переживает партию, но не смену словаря.
+     */
+    private synchronized EndgameSolver acquireSolver(Lexicon lexicon) {
+        for (Iterator<EndgameSolver> it = idleSolvers.iterator(); it.hasNext(); ) {
+            EndgameSolver solver = it.next();
+            if (solver.getLexicon() == lexicon) {
+                it.remove();
+                return solver;
+            }
         }
+        return new EndgameSolver(lexicon);
+    }
 
-        return possibleWords;
+    private synchronized void releaseSolver(EndgameSolver solver, GameRoom room) {
+        if (solver.getLexicon() == room.getLexicon() && idleSolvers.size() < MAX_IDLE_SOLVERS) {
+            idleSolvers.push(solver);
+        }
     }
 
     /**
@@ -516,16 +511,6 @@ public class WordChecker {
         }
     }
 
-    /**
-     * Проверяет конец игры
-     */
-    public boolean isGameOver(GameState.BoardCell[][] board, scrabble.utils.TileBag tileBag) {
-        
-        
-        
-        return tileBag.remainingTiles() == 0;
-    }
-
     /**
      * Рассчитывает финальные очки с учетом оставшихся фишек
      */
@@ -543,7 +528,8 @@ public class WordChecker {
      */
     public static String getCellType(int row, int col) {
         if (row >= 0 && row < 15 && col >= 0 && col < 15) {
-            return CELL_TYPES[row][col];
+            String type = PremiumSquares.getType(row, col);
+            return type != null ? type : "";
         }
         return "";
     }
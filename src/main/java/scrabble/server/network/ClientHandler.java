@@ -1,12 +1,10 @@
 package scrabble.server.network;
 
-import scrabble.client.model.GameState;
 import scrabble.protocol.Message;
 import scrabble.protocol.ProtocolParser;
 import scrabble.server.model.GameRoom;
 import scrabble.server.model.ServerModel;
 import scrabble.server.model.WordChecker;
-import scrabble.utils.TileBag;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -81,11 +79,19 @@ public class ClientHandler {
     private void handleCreateRoom(Message message) {
         String roomName = (String) message.get("roomName");
         int maxPlayers = ((Double) message.get("maxPlayers")).intValue();
+        String dictionary = (String) message.get("dictionary");
 
-        GameRoom room = model.createRoom(roomName, maxPlayers, clientId);
+        GameRoom room;
+        try {
+            room = model.createRoom(roomName, maxPlayers, clientId, dictionary);
+        } catch (IOException | IllegalArgumentException e) {
+            sendErrorMessage("Failed to load dictionary: " + e.getMessage());
+            return;
+        }
         currentRoomId = room.getId();
 
-        Message response = ProtocolParser.createCreateRoomResponseMessage(room.getId(), room.getName());
+        Message response = ProtocolParser.createCreateRoomResponseMessage(room.getId(), room.getName(),
+                room.getLexiconName());
         sendMessage(response);
 
 
@@ -148,9 +154,15 @@ public class ClientHandler {
         if (currentRoomId != null) {
             GameRoom room = model.getRoom(currentRoomId);
             if (room.getCreatorId().equals(clientId) && room.startGame()) {
-
-                Message gameStartMsg = ProtocolParser.createGameStartResponseMessage(room.getCurrentPlayerId());
-                broadcastToRoom(gameStartMsg, null);
+                Map<String, Message> messages = new HashMap<>();
+                synchronized (room) {
+                    for (String playerId : room.getPlayerIds()) {
+                        messages.put(playerId, ProtocolParser.createGameStartResponseMessage(
+                                room.getCurrentPlayerId(), room.getRack(playerId).getTiles(),
+                                room.getTileBag().remainingTiles()));
+                    }
+                }
+                messages.forEach(this::sendToPlayer);
             }
         }
     }
@@ -159,35 +171,41 @@ public class ClientHandler {
         if (currentRoomId != null) {
             GameRoom room = model.getRoom(currentRoomId);
 
-            if (clientId.equals(room.getCurrentPlayerId())) {
-                String word = (String) message.get("word");
-                int row = ((Double) message.get("row")).intValue();
-                int col = ((Double) message.get("col")).intValue();
-                boolean horizontal = (Boolean) message.get("horizontal");
-                List<String> tileIds = Arrays.asList((String[]) message.get("tileIds"));
+            if (room.isGameOver()) {
+                sendErrorMessage("The game is over");
+            } else if (clientId.equals(room.getCurrentPlayerId())) {
+                if ("skip".equals(message.get("action"))) {
+                    room.recordPass();
+                    finishTurn(room);
+                    return;
+                }
 
+                List<?> tiles = message.get("tiles") instanceof List ? (List<?>) message.get("tiles") : List.of();
+                int[] rows = new int[tiles.size()];
+                int[] cols = new int[tiles.size()];
+                StringBuilder letters = new StringBuilder(tiles.size());
+                List<Map<String, Object>> placed = new ArrayList<>(tiles.size());
+                for (int i = 0; i < tiles.size(); i++) {
+                    Map<?, ?> tile = (Map<?, ?>) tiles.get(i);
+                    rows[i] = ((Number) tile.get("row")).intValue();
+                    cols[i] = ((Number) tile.get("col")).intValue();
+                    letters.append(((String) tile.get("letter")).charAt(0));
+                    placed.add(ProtocolParser.createPlacedTileData(rows[i], cols[i], letters.charAt(i)));
+                }
 
-                WordChecker.ValidationResult result = model.getWordChecker().validateMove(
-                        word, row, col, horizontal,
-                        getCurrentBoardState(room), tileIds, clientId, room
+                WordChecker.ValidationResult result = model.getWordChecker().playMove(
+                        room, clientId, letters.toString(), rows, cols
                 );
 
                 if (result.isValid()) {
-
-                    model.getWordChecker().updateBoard(
-                            getCurrentBoardState(room), word, row, col,
-                            horizontal, getPlayerTiles(tileIds)
-                    );
-
+                    String playedWord = result.getFormedWords().get(0);
                     Message moveResult = ProtocolParser.createPlayerMoveResultMessage(
-                            clientId, word, result.getScore(), row, col, horizontal
+                            clientId, playedWord, result.getScore(), placed
                     );
                     broadcastToRoom(moveResult, null);
 
-                    room.nextTurn();
-                    Map<String, Object> gameData = new HashMap<>();
-                    Message nextTurnMsg = ProtocolParser.createGameStateMessage(room.getCurrentPlayerId(), gameData);
-                    broadcastToRoom(nextTurnMsg, null);
+                    room.recordMove(clientId, result.getScore());
+                    finishTurn(room);
                 } else {
                     sendErrorMessage(result.getMessage());
                 }
@@ -197,22 +215,22 @@ public class ClientHandler {
         }
     }
 
-    private GameState.BoardCell[][] getCurrentBoardState(GameRoom room) {
-
-        GameState gameState = new GameState();
-        return gameState.getBoard();
-    }
 
-    private List<TileBag.Tile> getPlayerTiles(List<String> tileIds) {
-
-        List<scrabble.utils.TileBag.Tile> tiles = new ArrayList<>();
-        for (String id : tileIds) {
-            tiles.add(new scrabble.utils.TileBag.Tile(id.charAt(0), 1));
+    /**
+     * После хода или паса: либо партия окончена и всем уходят итоги,
+     * либо ход переходит к следующему игроку
+     */
+    private void finishTurn(GameRoom room) {
+        if (room.isGameOver()) {
+            Map<String, Integer> finalScores = room.getFinalScores();
+            String winnerId = Collections.max(finalScores.entrySet(), Map.Entry.comparingByValue()).getKey();
+            broadcastToRoom(ProtocolParser.createGameOverMessage(winnerId, finalScores), null);
+        } else {
+            room.nextTurn();
+            broadcastGameState(room);
         }
-        return tiles;
     }
 
-
     private void handleChatMessage(Message message) {
         if (currentRoomId != null) {
             String content = (String) message.get("content");
@@ -226,6 +244,27 @@ public class ClientHandler {
         disconnect();
     }
 
+    /**
+     * Каждому игроку - очередь хода, его собственная стойка и остаток мешка
+     */
+    private void broadcastGameState(GameRoom room) {
+        Map<String, Message> messages = new HashMap<>();
+        synchronized (room) {
+            for (String playerId : room.getPlayerIds()) {
+                messages.put(playerId, ProtocolParser.createGameStateMessage(room.getCurrentPlayerId(),
+                        room.getRack(playerId).getTiles(), room.getTileBag().remainingTiles()));
+            }
+        }
+        messages.forEach(this::sendToPlayer);
+    }
+
+    private void sendToPlayer(String playerId, Message message) {
+        ClientHandler handler = model.getClientHandler(playerId);
+        if (handler != null) {
+            handler.sendMessage(message);
+        }
+    }
+
     private void broadcastToRoom(Message message, String excludeClientId) {
         GameRoom room = model.getRoom(currentRoomId);
         if (room != null) {
@@ -241,12 +280,14 @@ public class ClientHandler {
     }
 
     private void sendRoomList() {
-        Message message = ProtocolParser.createRoomListMessage(model.getAvailableRooms());
+        Message message = ProtocolParser.createRoomListMessage(model.getAvailableRooms(),
+                model.getLexicons().getInstalledLexicons());
         sendMessage(message);
     }
 
     private void broadcastRoomListUpdate() {
-        Message message = ProtocolParser.createRoomListMessage(model.getAvailableRooms());
+        Message message = ProtocolParser.createRoomListMessage(model.getAvailableRooms(),
+                model.getLexicons().getInstalledLexicons());
 
         for (ClientHandler handler : model.getAllClientHandlers()) {
             if (handler != this) {
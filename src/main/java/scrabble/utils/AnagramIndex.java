@@ -0,0 +1,205 @@
+package scrabble.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Индекс анаграмм: слова сгруппированы по сигнатуре - отсортированным буквам,
+ * упакованным по 5 бит в long (поэтому в индекс входят слова до 12 букв,
+ * чего с запасом хватает для стойки из 7 фишек). Группы лежат в примитивных
+ * массивах, поиск группы - открытая адресация по сигнатуре.
+ */
+public final class AnagramIndex {
+    public static final int MAX_LETTERS = 12;
+    public static final char BLANK = '?';
+
+    private final long[] groupKeys;
+    private final int[] groupStart;
+    private final byte[] letters;
+    private final int[] wordOffsets;
+    private final int[] table;
+
+    private AnagramIndex(long[] groupKeys, int[] groupStart, byte[] letters, int[] wordOffsets) {
+        this.groupKeys = groupKeys;
+        this.groupStart = groupStart;
+        this.letters = letters;
+        this.wordOffsets = wordOffsets;
+
+        int size = Integer.highestOneBit(Math.max(groupKeys.length, 1) * 2) << 1;
+        this.table = new int[size];
+        for (int group = 0; group < groupKeys.length; group++) {
+            int slot = slotOf(groupKeys[group]);
+            while (table[slot] != 0) {
+                slot = (slot + 1) & (table.length - 1);
+            }
+            table[slot] = group + 1;
+        }
+    }
+
+    public static AnagramIndex fromDawg(Dawg dawg) {
+        List<String> words = new ArrayList<>();
+        dawg.forEachWord(word -> {
+            if (word.length() <= MAX_LETTERS) {
+                words.add(word);
+            }
+        });
+
+        long[] signatures = new long[words.size()];
+        int[] counts = new int[26];
+        for (int i = 0; i < signatures.length; i++) {
+            Arrays.fill(counts, 0);
+            String word = words.get(i);
+            for (int j = 0; j < word.length(); j++) {
+                counts[word.charAt(j) - 'A']++;
+            }
+            signatures[i] = signature(counts);
+        }
+
+        int[] order = IntStream.range(0, signatures.length).boxed()
+                .sorted(Comparator.comparingLong(i -> signatures[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        int totalLetters = words.stream().mapToInt(String::length).sum();
+        byte[] letters = new byte[totalLetters];
+        int[] wordOffsets = new int[order.length + 1];
+        long[] groupKeys = new long[order.length];
+        int[] groupStart = new int[order.length + 1];
+        int groups = 0;
+        int position = 0;
+        for (int i = 0; i < order.length; i++) {
+            long key = signatures[order[i]];
+            if (groups == 0 || groupKeys[groups - 1] != key) {
+                groupKeys[groups] = key;
+                groupStart[groups] = i;
+                groups++;
+            }
+            String word = words.get(order[i]);
+            wordOffsets[i] = position;
+            for (int j = 0; j < word.length(); j++) {
+                letters[position++] = (byte) word.charAt(j);
+            }
+        }
+        wordOffsets[order.length] = position;
+        groupStart[groups] = order.length;
+
+        return new AnagramIndex(Arrays.copyOf(groupKeys, groups), Arrays.copyOf(groupStart, groups + 1),
+                letters, wordOffsets);
+    }
+
+    /**
+     * Сигнатура набора букв: буквы по возрастанию, по 5 бит (символ + 1)
+     */
+    private static long signature(int[] counts) {
+        long key = 0;
+        for (int symbol = 0; symbol < 26; symbol++) {
+            for (int n = counts[symbol]; n > 0; n--) {
+                key = (key << 5) | (symbol + 1);
+            }
+        }
+        return key;
+    }
+
+    private int slotOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (table.length - 1);
+    }
+
+    private int findGroup(long key) {
+        int slot = slotOf(key);
+        int group;
+        while ((group = table[slot]) != 0) {
+            if (groupKeys[group - 1] == key) {
+                return group - 1;
+            }
+            slot = (slot + 1) & (table.length - 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Все слова, составленные ровно из данных букв
+     */
+    public List<String> getAnagrams(CharSequence letters) {
+        int[] counts = new int[26];
+        for (int i = 0; i < letters.length(); i++) {
+            int symbol = Dawg.symbolOf(letters.charAt(i));
+            if (symbol < 0 || symbol >= 26) {
+                return new ArrayList<>();
+            }
+            counts[symbol]++;
+        }
+        List<String> result = new ArrayList<>();
+        if (letters.length() <= MAX_LETTERS) {
+            collectGroup(signature(counts), result::add);
+        }
+        return result;
+    }
+
+    /**
+     * Все слова не короче minLength, которые можно составить из фишек стойки.
+     * Бланк задаётся символом '?' или пробелом и может заменить любую букву.
+     */
+    public List<String> findWords(CharSequence rack, int minLength) {
+        int[] counts = new int[26];
+        int blanks = 0;
+        for (int i = 0; i < rack.length(); i++) {
+            char c = rack.charAt(i);
+            int symbol = Dawg.symbolOf(c);
+            if (symbol >= 0 && symbol < 26) {
+                counts[symbol]++;
+            } else if (c == BLANK || c == ' ') {
+                blanks++;
+            }
+        }
+        List<String> result = new ArrayList<>();
+        enumerate(counts, 0, blanks, new int[26], 0, Math.max(minLength, 1), result::add);
+        return result;
+    }
+
+    /**
+     * Перебирает мультимножества букв, доступные со стойки: буква i берётся
+     * от 0 до counts[i] раз, а недостающие экземпляры покрываются бланками.
+     * Каждое мультимножество встречается ровно один раз, поэтому слова не дублируются.
+     */
+    private void enumerate(int[] counts, int symbol, int blanks, int[] chosen, int size,
+                           int minLength, Consumer<String> action) {
+        if (symbol == 26) {
+            if (size >= minLength && size <= MAX_LETTERS) {
+                collectGroup(signature(chosen), action);
+            }
+            return;
+        }
+        for (int n = 0; n <= counts[symbol] + blanks && size + n <= MAX_LETTERS; n++) {
+            chosen[symbol] = n;
+            int used = Math.max(0, n - counts[symbol]);
+            enumerate(counts, symbol + 1, blanks - used, chosen, size + n, minLength, action);
+        }
+        chosen[symbol] = 0;
+    }
+
+    private void collectGroup(long key, Consumer<String> action) {
+        int group = findGroup(key);
+        if (group < 0) {
+            return;
+        }
+        for (int i = groupStart[group]; i < groupStart[group + 1]; i++) {
+            action.accept(new String(letters, wordOffsets[i], wordOffsets[i + 1] - wordOffsets[i],
+                    StandardCharsets.US_ASCII));
+        }
+    }
+
+    public int getGroupCount() {
+        return groupKeys.length;
+    }
+
+    public long getSizeInBytes() {
+        return 8L * groupKeys.length + 4L * groupStart.length + letters.length
+                + 4L * wordOffsets.length + 4L * table.length;
+    }
+}
@@ -0,0 +1,129 @@
+package scrabble.utils;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Фильтр Блума перед основным словарём: небольшой массив битов, который
+ * помещается в кеш процессора и отсекает большую часть несуществующих слов,
+ * не обращаясь к графу. Хеш считается по буквам без учёта регистра и без
+ * создания объектов; k позиций получаются из двух половин 64-битного хеша.
+ */
+public final class BloomFilter {
+    private final long[] bits;
+    private final int mask;
+    private final int hashCount;
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    public BloomFilter(int expectedWords, int bitsPerWord, int hashCount) {
+        int size = Integer.highestOneBit(Math.max(64, expectedWords * bitsPerWord - 1)) << 1;
+        this.bits = new long[size >>> 6];
+        this.mask = size - 1;
+        this.hashCount = hashCount;
+    }
+
+    public static BloomFilter fromDawg(Dawg dawg) {
+        BloomFilter filter = new BloomFilter(dawg.getWordCount(), 8, 5);
+        dawg.forEachWord(filter::add);
+        return filter;
+    }
+
+    public void add(CharSequence word) {
+        long hash = hash(word, 0, word.length());
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = (h1 + i * h2) & mask;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    /**
+     * false - слова точно нет в словаре; true - слово, возможно, есть
+     */
+    public boolean mightContain(CharSequence word, int offset, int length) {
+        queries.increment();
+        return probe(hash(word, offset, length));
+    }
+
+    private boolean probe(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = (h1 + i * h2) & mask;
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                rejected.increment();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean mightContain(CharSequence word) {
+        return mightContain(word, 0, word.length());
+    }
+
+    public boolean mightContain(char[] word, int offset, int length) {
+        queries.increment();
+        long hash = 0xCBF29CE484222325L;
+        for (int i = offset; i < offset + length; i++) {
+            hash = (hash ^ (word[i] & 0xDF)) * 0x100000001B3L;
+        }
+        return probe(finish(hash));
+    }
+
+    /**
+     * Отмечает, что фильтр пропустил слово, которого нет в словаре
+     */
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    private static long hash(CharSequence word, int offset, int length) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = offset; i < offset + length; i++) {
+            hash = (hash ^ (word.charAt(i) & 0xDF)) * 0x100000001B3L;
+        }
+        return finish(hash);
+    }
+
+    private static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return hash | (1L << 32);
+    }
+
+    public long getQueryCount() {
+        return queries.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getFalsePositiveCount() {
+        return falsePositives.sum();
+    }
+
+    /**
+     * Доля ложных срабатываний среди слов, которых нет в словаре
+     */
+    public double getFalsePositiveRate() {
+        long misses = rejected.sum() + falsePositives.sum();
+        return misses == 0 ? 0.0 : (double) falsePositives.sum() / misses;
+    }
+
+    public long getSizeInBytes() {
+        return 8L * bits.length;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BloomFilter[%d KB, queries=%d, rejected=%d, falsePositives=%d, fpRate=%.4f]",
+                getSizeInBytes() / 1024, getQueryCount(), getRejectedCount(), getFalsePositiveCount(),
+                getFalsePositiveRate());
+    }
+}
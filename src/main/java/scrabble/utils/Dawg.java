@@ -0,0 +1,495 @@
+package scrabble.utils;
+
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Минимизированный ориентированный ациклический граф слов (DAWG).
+ * Узлы и рёбра хранятся в буферах int: для каждого узла маска исходящих
+ * символов (с флагом конца слова в старшем бите) и индекс первого ребра.
+ * Переход по символу - это проверка бита и bitCount, так что поиск слова
+ * или префикса занимает O(длина) и ничего не аллоцирует. Буферы могут
+ * лежать как в куче, так и в отображённом в память файле снимка.
+ */
+public final class Dawg {
+    public static final int ALPHABET = 27;
+    public static final int SEPARATOR = 26;
+    public static final char SEPARATOR_CHAR = '^';
+
+    private static final int TERMINAL = 1 << 31;
+    private static final int SYMBOL_MASK = (1 << ALPHABET) - 1;
+
+    private final IntBuffer nodes;
+    private final IntBuffer edges;
+    private final int root;
+    private final int nodeCount;
+    private final int wordCount;
+    private volatile int[] lengthMasks;
+
+    Dawg(IntBuffer nodes, IntBuffer edges, int root, int wordCount) {
+        this.nodes = nodes;
+        this.edges = edges;
+        this.root = root;
+        this.nodeCount = nodes.limit() >> 1;
+        this.wordCount = wordCount;
+    }
+
+    public static Dawg fromWords(String[] words) {
+        String[] sorted = words.clone();
+        Arrays.sort(sorted);
+        Builder builder = new Builder();
+        for (String word : sorted) {
+            builder.add(word);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Переводит символ в индекс алфавита: A-Z -> 0..25, разделитель -> 26, иначе -1
+     */
+    public static int symbolOf(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a';
+        }
+        return c == SEPARATOR_CHAR ? SEPARATOR : -1;
+    }
+
+    public static char charOf(int symbol) {
+        return symbol == SEPARATOR ? SEPARATOR_CHAR : (char) ('A' + symbol);
+    }
+
+    public int root() {
+        return root;
+    }
+
+    /**
+     * Возвращает узел, в который ведёт символ, или -1, если перехода нет
+     */
+    public int child(int node, int symbol) {
+        int mask = nodes.get(node << 1);
+        int bit = 1 << symbol;
+        if ((mask & bit) == 0) {
+            return -1;
+        }
+        return edges.get(nodes.get((node << 1) + 1) + Integer.bitCount(mask & (bit - 1)));
+    }
+
+    public boolean isTerminal(int node) {
+        return nodes.get(node << 1) < 0;
+    }
+
+    public int childMask(int node) {
+        return nodes.get(node << 1) & SYMBOL_MASK;
+    }
+
+    /**
+     * Проходит по графу от корня, возвращает конечный узел или -1
+     */
+    public int walk(CharSequence s) {
+        int node = root;
+        for (int i = 0; i < s.length() && node >= 0; i++) {
+            int symbol = symbolOf(s.charAt(i));
+            node = symbol < 0 ? -1 : child(node, symbol);
+        }
+        return node;
+    }
+
+    public boolean contains(CharSequence word) {
+        int node = walk(word);
+        return node >= 0 && isTerminal(node);
+    }
+
+    /**
+     * Проверка слова из части последовательности; буквы A-Z в любом регистре
+     */
+    public boolean contains(CharSequence word, int offset, int length) {
+        int node = root;
+        for (int i = offset; i < offset + length && node >= 0; i++) {
+            int symbol = symbolOf(word.charAt(i));
+            node = symbol < 0 ? -1 : child(node, symbol);
+        }
+        return node >= 0 && isTerminal(node);
+    }
+
+    public boolean contains(char[] word, int offset, int length) {
+        int node = root;
+        for (int i = offset; i < offset + length && node >= 0; i++) {
+            int symbol = symbolOf(word[i]);
+            node = symbol < 0 ? -1 : child(node, symbol);
+        }
+        return node >= 0 && isTerminal(node);
+    }
+
+    public boolean hasPrefix(CharSequence prefix) {
+        return walk(prefix) >= 0;
+    }
+
+    /**
+     * Перебирает все слова графа в лексикографическом порядке
+     */
+    public void forEachWord(Consumer<String> action) {
+        forEachWord(root, new char[64], 0, action);
+    }
+
+    private void forEachWord(int node, char[] buffer, int depth, Consumer<String> action) {
+        if (isTerminal(node)) {
+            action.accept(new String(buffer, 0, depth));
+        }
+        if (depth == buffer.length) {
+            return;
+        }
+        int mask = childMask(node);
+        int edge = nodes.get((node << 1) + 1);
+        while (mask != 0) {
+            int symbol = Integer.numberOfTrailingZeros(mask);
+            buffer[depth] = charOf(symbol);
+            forEachWord(edges.get(edge++), buffer, depth + 1, action);
+            mask &= mask - 1;
+        }
+    }
+
+    /**
+     * Перебирает слова, подходящие под шаблон, где '?' - любая буква.
+     * Обход графа ветвится только на '?' и отсекает узлы, из которых
+     * нельзя дойти до конца слова нужной длины.
+     */
+    public void match(CharSequence pattern, Consumer<String> action) {
+        int length = pattern.length();
+        if (length == 0 || length >= 32) {
+            return;
+        }
+        char[] buffer = new char[length];
+        for (int i = 0; i < length; i++) {
+            char c = pattern.charAt(i);
+            if (c != '?' && symbolOf(c) < 0) {
+                return;
+            }
+            buffer[i] = c == '?' ? '?' : Character.toUpperCase(c);
+        }
+        match(root, buffer, 0, lengthMasks(), action);
+    }
+
+    private void match(int node, char[] pattern, int depth, int[] lengths, Consumer<String> action) {
+        int remaining = pattern.length - depth;
+        if ((lengths[node] & (1 << remaining)) == 0) {
+            return;
+        }
+        if (remaining == 0) {
+            action.accept(new String(pattern));
+            return;
+        }
+
+        char c = pattern[depth];
+        if (c != '?') {
+            int next = child(node, symbolOf(c));
+            if (next >= 0) {
+                match(next, pattern, depth + 1, lengths, action);
+            }
+            return;
+        }
+
+        int mask = childMask(node);
+        int edge = nodes.get((node << 1) + 1);
+        while (mask != 0) {
+            int symbol = Integer.numberOfTrailingZeros(mask);
+            pattern[depth] = charOf(symbol);
+            match(edges.get(edge++), pattern, depth + 1, lengths, action);
+            mask &= mask - 1;
+        }
+        pattern[depth] = '?';
+    }
+
+    /**
+     * Для каждого узла маска длин оставшихся суффиксов: бит k означает, что
+     * из узла за k шагов достижим конец слова (длины от 31 склеены в бит 31).
+     * Дети всегда регистрируются раньше родителя, поэтому хватает одного
+     * прохода по возрастанию номеров.
+     */
+    private int[] lengthMasks() {
+        int[] masks = lengthMasks;
+        if (masks == null) {
+            masks = new int[nodeCount];
+            for (int node = 0; node < nodeCount; node++) {
+                int mask = isTerminal(node) ? 1 : 0;
+                int edge = nodes.get((node << 1) + 1);
+                for (int m = childMask(node); m != 0; m &= m - 1) {
+                    int below = masks[edges.get(edge++)];
+                    mask |= (below << 1) | (below & (1 << 31));
+                }
+                masks[node] = mask;
+            }
+            lengthMasks = masks;
+        }
+        return masks;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getEdgeCount() {
+        return edges.limit();
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    public long getSizeInBytes() {
+        return 4L * nodes.limit() + 4L * edges.limit();
+    }
+
+    /**
+     * true, если граф лежит вне кучи (в отображённом файле снимка)
+     */
+    public boolean isOffHeap() {
+        return nodes.isDirect();
+    }
+
+    IntBuffer nodes() {
+        return nodes.duplicate();
+    }
+
+    /**
+     * Проверяет граф, прочитанный извне: корень и все переходы указывают на
+     * существующие узлы, а рёбра каждого узла лежат внутри массива рёбер.
+     * Builder нумерует узел после всех его потомков, поэтому переход всегда
+     * ведёт к меньшему номеру; это же исключает циклы.
+     */
+    boolean isConsistent() {
+        int edgeCount = edges.limit();
+        if ((nodes.limit() & 1) != 0 || root < 0 || root >= nodeCount || wordCount < 0) {
+            return false;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            int header = nodes.get(node << 1);
+            int first = nodes.get((node << 1) + 1);
+            int count = Integer.bitCount(header & SYMBOL_MASK);
+            if ((header & ~(TERMINAL | SYMBOL_MASK)) != 0 || first < 0 || first > edgeCount - count) {
+                return false;
+            }
+            for (int edge = first; edge < first + count; edge++) {
+                int target = edges.get(edge);
+                if (target < 0 || target >= node) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    IntBuffer edges() {
+        return edges.duplicate();
+    }
+
+    /**
+     * Строит минимальный граф инкрементально (алгоритм Дацюка) из слов,
+     * поданных в лексикографическом порядке. Зарегистрированные узлы сразу
+     * пишутся в итоговые массивы, а реестр - открытая хеш-таблица по их id.
+     */
+    public static final class Builder {
+        private static final int MAX_LENGTH = 64;
+
+        private int[] nodes = new int[1 << 12];
+        private int[] edges = new int[1 << 12];
+        private int nodeCount;
+        private int edgeCount;
+        private int[] register = newTable(1 << 12);
+        private int registered;
+
+        private final int[] pathMask = new int[MAX_LENGTH + 1];
+        private final boolean[] pathTerminal = new boolean[MAX_LENGTH + 1];
+        private final int[][] pathChildren = new int[MAX_LENGTH + 1][ALPHABET];
+        private final int[] previous = new int[MAX_LENGTH];
+        private final int[] symbols = new int[MAX_LENGTH];
+        private int previousLength;
+        private int wordCount;
+        private boolean built;
+
+        public Builder add(CharSequence word) {
+            int length = word.length();
+            if (length > MAX_LENGTH) {
+                throw new IllegalArgumentException("Word is too long: " + word);
+            }
+            for (int i = 0; i < length; i++) {
+                symbols[i] = symbolOf(word.charAt(i));
+                if (symbols[i] < 0) {
+                    throw new IllegalArgumentException("Unsupported character in word: " + word);
+                }
+            }
+            return addSymbols(length);
+        }
+
+        /**
+         * Добавляет слово из ASCII-байтов, не создавая строку
+         */
+        public Builder add(byte[] word, int offset, int length) {
+            if (length > MAX_LENGTH) {
+                throw new IllegalArgumentException("Word is too long: "
+                        + new String(word, offset, length, StandardCharsets.US_ASCII));
+            }
+            for (int i = 0; i < length; i++) {
+                symbols[i] = symbolOf((char) word[offset + i]);
+                if (symbols[i] < 0) {
+                    throw new IllegalArgumentException("Unsupported character in word: "
+                            + new String(word, offset, length, StandardCharsets.US_ASCII));
+                }
+            }
+            return addSymbols(length);
+        }
+
+        private Builder addSymbols(int length) {
+            if (length == 0) {
+                return this;
+            }
+            if (built) {
+                throw new IllegalStateException("Builder has already been used");
+            }
+
+            int common = 0;
+            while (common < length && common < previousLength && symbols[common] == previous[common]) {
+                common++;
+            }
+            if (common == length && common == previousLength) {
+                return this;
+            }
+            if (wordCount > 0 && (common == length
+                    || (common < previousLength && symbols[common] < previous[common]))) {
+                StringBuilder word = new StringBuilder();
+                for (int i = 0; i < length; i++) {
+                    word.append(charOf(symbols[i]));
+                }
+                throw new IllegalArgumentException("Words must be added in sorted order: " + word);
+            }
+
+            minimize(common);
+            for (int depth = common; depth < length; depth++) {
+                int symbol = symbols[depth];
+                previous[depth] = symbol;
+                pathMask[depth] |= 1 << symbol;
+                pathMask[depth + 1] = 0;
+                pathTerminal[depth + 1] = false;
+            }
+            pathTerminal[length] = true;
+            previousLength = length;
+            wordCount++;
+            return this;
+        }
+
+        public Dawg build() {
+            if (built) {
+                throw new IllegalStateException("Builder has already been used");
+            }
+            built = true;
+            minimize(0);
+            int root = registerNode(0);
+            return new Dawg(IntBuffer.wrap(Arrays.copyOf(nodes, nodeCount << 1)),
+                    IntBuffer.wrap(Arrays.copyOf(edges, edgeCount)), root, wordCount);
+        }
+
+        private void minimize(int downTo) {
+            for (int depth = previousLength; depth > downTo; depth--) {
+                pathChildren[depth - 1][previous[depth - 1]] = registerNode(depth);
+            }
+            previousLength = downTo;
+        }
+
+        private int registerNode(int depth) {
+            int mask = pathMask[depth];
+            int header = mask | (pathTerminal[depth] ? TERMINAL : 0);
+            int[] children = pathChildren[depth];
+
+            int hash = header;
+            for (int m = mask; m != 0; m &= m - 1) {
+                hash = hash * 31 + children[Integer.numberOfTrailingZeros(m)];
+            }
+
+            int slot = mix(hash) & (register.length - 1);
+            while (register[slot] >= 0) {
+                int candidate = register[slot];
+                if (sameNode(candidate, header, children)) {
+                    return candidate;
+                }
+                slot = (slot + 1) & (register.length - 1);
+            }
+
+            int id = appendNode(header, children);
+            register[slot] = id;
+            if (++registered * 2 > register.length) {
+                rehash();
+            }
+            return id;
+        }
+
+        private boolean sameNode(int id, int header, int[] children) {
+            if (nodes[id << 1] != header) {
+                return false;
+            }
+            int edge = nodes[(id << 1) + 1];
+            for (int m = header & SYMBOL_MASK; m != 0; m &= m - 1) {
+                if (edges[edge++] != children[Integer.numberOfTrailingZeros(m)]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int appendNode(int header, int[] children) {
+            int id = nodeCount++;
+            if ((id << 1) + 2 > nodes.length) {
+                nodes = Arrays.copyOf(nodes, nodes.length * 2);
+            }
+            int degree = Integer.bitCount(header & SYMBOL_MASK);
+            if (edgeCount + degree > edges.length) {
+                edges = Arrays.copyOf(edges, Math.max(edges.length * 2, edgeCount + degree));
+            }
+            nodes[id << 1] = header;
+            nodes[(id << 1) + 1] = edgeCount;
+            for (int m = header & SYMBOL_MASK; m != 0; m &= m - 1) {
+                edges[edgeCount++] = children[Integer.numberOfTrailingZeros(m)];
+            }
+            return id;
+        }
+
+        private void rehash() {
+            int[] table = newTable(register.length * 2);
+            for (int id : register) {
+                if (id < 0) {
+                    continue;
+                }
+                int slot = mix(hashOf(id)) & (table.length - 1);
+                while (table[slot] >= 0) {
+                    slot = (slot + 1) & (table.length - 1);
+                }
+                table[slot] = id;
+            }
+            register = table;
+        }
+
+        private int hashOf(int id) {
+            int header = nodes[id << 1];
+            int hash = header;
+            int edge = nodes[(id << 1) + 1];
+            for (int m = header & SYMBOL_MASK; m != 0; m &= m - 1) {
+                hash = hash * 31 + edges[edge++];
+            }
+            return hash;
+        }
+
+        private static int mix(int hash) {
+            hash *= 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+
+        private static int[] newTable(int size) {
+            int[] table = new int[size];
+            Arrays.fill(table, -1);
+            return table;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package scrabble.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Бинарный снимок скомпилированного словаря. Формат: заголовок
+ * (магическое число, версия формата, CRC32 исходного dictionary.txt,
+ * корень, число слов, размеры массивов) и затем массивы узлов и рёбер
+ * {@link Dawg} в big-endian. Снимок собирается на этапе сборки и либо
+ * читается одним вызовом, либо отображается в память только для чтения:
+ * тогда граф живёт вне кучи, а несколько серверов на одной машине делят
+ * одну копию в страничном кеше ОС.
+ */
+public final class DictionarySnapshot {
+    public static final int MAGIC = 0x44415747; // "DAWG"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 32;
+
+    private DictionarySnapshot() {
+    }
+
+    public static long checksum(byte[] source) {
+        CRC32 crc = new CRC32();
+        crc.update(source);
+        return crc.getValue();
+    }
+
+    public static void write(Dawg dawg, long sourceChecksum, OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+        IntBuffer nodes = dawg.nodes();
+        IntBuffer edges = dawg.edges();
+
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeLong(sourceChecksum);
+        data.writeInt(dawg.root());
+        data.writeInt(dawg.getWordCount());
+        data.writeInt(nodes.limit());
+        data.writeInt(edges.limit());
+        for (int i = 0; i < nodes.limit(); i++) {
+            data.writeInt(nodes.get(i));
+        }
+        for (int i = 0; i < edges.limit(); i++) {
+            data.writeInt(edges.get(i));
+        }
+        data.flush();
+    }
+
+    /**
+     * Читает снимок целиком в кучу. Возвращает null, если формат или версия
+     * не совпадают, снимок собран из другой версии словаря или его граф
+     * повреждён.
+     */
+    public static Dawg read(InputStream in, long expectedChecksum) throws IOException {
+        return fromBuffer(ByteBuffer.wrap(in.readAllBytes()), expectedChecksum);
+    }
+
+    /**
+     * Отображает файл снимка в память только для чтения; граф читается прямо
+     * из отображения и не копируется в кучу.
+     */
+    public static Dawg map(Path file, long expectedChecksum) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return fromBuffer(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), expectedChecksum);
+        }
+    }
+
+    private static Dawg fromBuffer(ByteBuffer buffer, long expectedChecksum) {
+        if (buffer.remaining() < HEADER_SIZE
+                || buffer.getInt() != MAGIC
+                || buffer.getInt() != VERSION
+                || buffer.getLong() != expectedChecksum) {
+            return null;
+        }
+
+        int root = buffer.getInt();
+        int wordCount = buffer.getInt();
+        int nodeLength = buffer.getInt();
+        int edgeLength = buffer.getInt();
+        if (nodeLength < 0 || edgeLength < 0 || buffer.remaining() != 4L * nodeLength + 4L * edgeLength) {
+            return null;
+        }
+        IntBuffer ints = buffer.asIntBuffer();
+        Dawg dawg = new Dawg(ints.slice(0, nodeLength), ints.slice(nodeLength, edgeLength), root, wordCount);
+        return dawg.isConsistent() ? dawg : null;
+    }
+
+    /**
+     * Копирует снимок в общий каталог (атомарно, если его там ещё нет),
+     * чтобы все процессы отображали один и тот же файл. Уже лежащая там
+     * копия, которая не проходит проверку (например, обрезанная), заменяется.
+     */
+    public static Path extract(InputStream in, Path directory, long sourceChecksum) throws IOException {
+        Path target = directory.resolve(String.format("scrabble-dictionary-v%d-%08x.dawg", VERSION, sourceChecksum));
+        if (Files.exists(target)) {
+            if (map(target, sourceChecksum) != null) {
+                return target;
+            }
+            System.out.println("Cached dictionary snapshot " + target + " is damaged, extracting it again");
+        }
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "scrabble-dictionary", ".tmp");
+        try {
+            Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return target;
+    }
+
+    /**
+     * Шаг сборки: компилирует текстовый словарь в бинарный снимок.
+     * Аргументы: путь к dictionary.txt и путь к выходному файлу.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: DictionarySnapshot <dictionary.txt> <output.dawg>");
+            System.exit(1);
+        }
+
+        long start = System.currentTimeMillis();
+        byte[] source = Files.readAllBytes(Paths.get(args[0]));
+        Dawg dawg = DictionaryLoader.parseWords(source);
+
+        Path output = Paths.get(args[1]);
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try (OutputStream out = Files.newOutputStream(output)) {
+            write(dawg, checksum(source), out);
+        }
+        System.out.println("Compiled " + dawg.getWordCount() + " words into " + output
+                + " (" + Files.size(output) / 1024 + " KB) in " + (System.currentTimeMillis() - start) + " ms");
+    }
+}
@@ -0,0 +1,210 @@
+package scrabble.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * GADDAG над словарём: для каждого слова и каждой точки разбиения хранится
+ * строка REV(префикс) ^ суффикс, свёрнутая в минимальный граф {@link Dawg}.
+ * Это позволяет строить слово от якорной клетки сначала влево, потом вправо,
+ * не перебирая перестановки фишек.
+ */
+public final class Gaddag {
+    public static final int BOARD_SIZE = 15;
+    public static final int BLANK = 26;
+
+    private final Dawg graph;
+
+    private Gaddag(Dawg graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Строит GADDAG по словам длиной от 2 до размера доски. Строки генерируются
+     * группами по первому символу, чтобы не держать в памяти все сразу.
+     */
+    public static Gaddag fromWords(String[] words) {
+        String[] playable = Arrays.stream(words)
+                .filter(w -> w.length() >= 2 && w.length() <= BOARD_SIZE)
+                .map(String::toUpperCase)
+                .toArray(String[]::new);
+
+        Dawg.Builder builder = new Dawg.Builder();
+        char[] buffer = new char[BOARD_SIZE + 1];
+        List<String> group = new ArrayList<>();
+        for (char first = 'A'; first <= 'Z'; first++) {
+            group.clear();
+            for (String word : playable) {
+                int n = word.length();
+                for (int split = 1; split <= n; split++) {
+                    if (word.charAt(split - 1) != first) {
+                        continue;
+                    }
+                    int length = 0;
+                    for (int i = split - 1; i >= 0; i--) {
+                        buffer[length++] = word.charAt(i);
+                    }
+                    if (split < n) {
+                        buffer[length++] = Dawg.SEPARATOR_CHAR;
+                        for (int i = split; i < n; i++) {
+                            buffer[length++] = word.charAt(i);
+                        }
+                    }
+                    group.add(new String(buffer, 0, length));
+                }
+            }
+            group.sort(null);
+            for (String entry : group) {
+                builder.add(entry);
+            }
+        }
+        return new Gaddag(builder.build());
+    }
+
+    public static Gaddag fromDawg(Dawg dawg) {
+        List<String> words = new ArrayList<>(dawg.getWordCount());
+        dawg.forEachWord(words::add);
+        return fromWords(words.toArray(new String[0]));
+    }
+
+    public Dawg getGraph() {
+        return graph;
+    }
+
+    public boolean contains(CharSequence word) {
+        int node = graph.root();
+        for (int i = word.length() - 1; i >= 0 && node >= 0; i--) {
+            int symbol = Dawg.symbolOf(word.charAt(i));
+            node = symbol < 0 || symbol == Dawg.SEPARATOR ? -1 : graph.child(node, symbol);
+        }
+        return node >= 0 && graph.isTerminal(node);
+    }
+
+    /**
+     * Получатель найденных размещений. В массиве line на отрезке [start, end]
+     * лежит слово целиком: заглавные буквы - фишки, строчные - бланки.
+     * Новые фишки - это клетки, пустые в исходной линии.
+     */
+    public interface PlacementConsumer {
+        void accept(int start, int end, char[] line);
+    }
+
+    /**
+     * Перебирает все слова в линии, проходящие через пустую якорную клетку anchor.
+     *
+     * @param line        буквы линии доски, 0 - пустая клетка; на время поиска изменяется
+     * @param crossChecks для каждой клетки маска из 26 бит букв, допустимых поперечным словом
+     * @param anchorMask  биты всех якорных клеток линии; левее якоря на них не заходим,
+     *                    чтобы каждое размещение находилось ровно один раз
+     * @param rack        количество фишек по буквам, индекс {@link #BLANK} - бланки;
+     *                    на время поиска изменяется и восстанавливается
+     */
+    public void generate(char[] line, int[] crossChecks, int anchorMask, int anchor,
+                         int[] rack, PlacementConsumer consumer) {
+        if (line[anchor] != 0) {
+            return;
+        }
+        new Search(line, crossChecks, anchorMask, anchor, rack, consumer).left(anchor, graph.root());
+    }
+
+    private final class Search {
+        private final char[] line;
+        private final int[] crossChecks;
+        private final int anchorMask;
+        private final int anchor;
+        private final int[] rack;
+        private final PlacementConsumer consumer;
+
+        Search(char[] line, int[] crossChecks, int anchorMask, int anchor, int[] rack,
+               PlacementConsumer consumer) {
+            this.line = line;
+            this.crossChecks = crossChecks;
+            this.anchorMask = anchorMask;
+            this.anchor = anchor;
+            this.rack = rack;
+            this.consumer = consumer;
+        }
+
+        void left(int pos, int node) {
+            if (line[pos] != 0) {
+                int next = graph.child(node, Dawg.symbolOf(line[pos]));
+                if (next >= 0) {
+                    afterLeft(pos, next);
+                }
+                return;
+            }
+            forEachPlayable(pos, node, true, pos);
+        }
+
+        void right(int pos, int node, int start) {
+            if (line[pos] != 0) {
+                int next = graph.child(node, Dawg.symbolOf(line[pos]));
+                if (next >= 0) {
+                    afterRight(pos, next, start);
+                }
+                return;
+            }
+            forEachPlayable(pos, node, false, start);
+        }
+
+        private void forEachPlayable(int pos, int node, boolean leftward, int start) {
+            int mask = graph.childMask(node) & crossChecks[pos] & ((1 << 26) - 1);
+            while (mask != 0) {
+                int symbol = Integer.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+                int next = graph.child(node, symbol);
+                if (rack[symbol] > 0) {
+                    rack[symbol]--;
+                    line[pos] = (char) ('A' + symbol);
+                    step(pos, next, leftward, start);
+                    line[pos] = 0;
+                    rack[symbol]++;
+                }
+                if (rack[BLANK] > 0) {
+                    rack[BLANK]--;
+                    line[pos] = (char) ('a' + symbol);
+                    step(pos, next, leftward, start);
+                    line[pos] = 0;
+                    rack[BLANK]++;
+                }
+            }
+        }
+
+        private void step(int pos, int next, boolean leftward, int start) {
+            if (leftward) {
+                afterLeft(pos, next);
+            } else {
+                afterRight(pos, next, start);
+            }
+        }
+
+        private void afterLeft(int pos, int node) {
+            boolean leftOpen = pos == 0 || line[pos - 1] == 0;
+            boolean rightOpen = anchor == line.length - 1 || line[anchor + 1] == 0;
+
+            if (graph.isTerminal(node) && leftOpen && rightOpen) {
+                consumer.accept(pos, anchor, line);
+            }
+            if (pos > 0 && (line[pos - 1] != 0 || (anchorMask & (1 << (pos - 1))) == 0)) {
+                left(pos - 1, node);
+            }
+            if (leftOpen && anchor < line.length - 1) {
+                int separator = graph.child(node, Dawg.SEPARATOR);
+                if (separator >= 0) {
+                    right(anchor + 1, separator, pos);
+                }
+            }
+        }
+
+        private void afterRight(int pos, int node, int start) {
+            boolean rightOpen = pos == line.length - 1 || line[pos + 1] == 0;
+            if (graph.isTerminal(node) && rightOpen) {
+                consumer.accept(start, pos, line);
+            }
+            if (pos < line.length - 1) {
+                right(pos + 1, node, start);
+            }
+        }
+    }
+}
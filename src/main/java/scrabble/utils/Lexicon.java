@@ -0,0 +1,236 @@
+package scrabble.utils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Один словарь со всеми производными структурами: граф слов и фильтр Блума
+ * перед ним, а также GADDAG, индекс анаграмм и таблица оценок остатка стойки.
+ * Набор слов неизменяем, а индексы строятся лениво при первом обращении
+ * и публикуются через volatile-поля, так что экземпляр безопасно
+ * разделяется между комнатами.
+ */
+public final class Lexicon {
+    private final String name;
+    private final Dawg dictionary;
+    private final BloomFilter bloomFilter;
+    private volatile Gaddag gaddag;
+    private volatile AnagramIndex anagramIndex;
+    private volatile RackLeaves rackLeaves;
+
+    public Lexicon(String name, Dawg dictionary) {
+        this.name = name;
+        this.dictionary = dictionary;
+        this.bloomFilter = BloomFilter.fromDawg(dictionary);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Dawg getDictionary() {
+        return dictionary;
+    }
+
+    public BloomFilter getBloomFilter() {
+        return bloomFilter;
+    }
+
+    public Gaddag getGaddag() {
+        Gaddag result = gaddag;
+        if (result == null) {
+            synchronized (this) {
+                result = gaddag;
+                if (result == null) {
+                    long start = System.currentTimeMillis();
+                    result = Gaddag.fromDawg(dictionary);
+                    System.out.println("Built GADDAG for lexicon " + name + " with " + result.getGraph().getNodeCount()
+                            + " nodes in " + (System.currentTimeMillis() - start) + " ms");
+                    gaddag = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    public AnagramIndex getAnagramIndex() {
+        AnagramIndex result = anagramIndex;
+        if (result == null) {
+            synchronized (this) {
+                result = anagramIndex;
+                if (result == null) {
+                    long start = System.currentTimeMillis();
+                    result = AnagramIndex.fromDawg(dictionary);
+                    System.out.println("Built anagram index for lexicon " + name + " with " + result.getGroupCount()
+                            + " groups (" + result.getSizeInBytes() / 1024 + " KB) in "
+                            + (System.currentTimeMillis() - start) + " ms");
+                    anagramIndex = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    public RackLeaves getRackLeaves() {
+        RackLeaves result = rackLeaves;
+        if (result == null) {
+            synchronized (this) {
+                result = rackLeaves;
+                if (result == null) {
+                    long start = System.currentTimeMillis();
+                    result = RackLeaves.fromDawg(dictionary);
+                    System.out.println("Built rack leave table for lexicon " + name + " with " + result.getSize()
+                            + " entries (" + result.getSizeInBytes() / 1024 + " KB) in "
+                            + (System.currentTimeMillis() - start) + " ms");
+                    rackLeaves = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Заранее строит те производные структуры, которые уже были построены
+     * у previous, чтобы после подмены словаря первый ход не ждал их сборки
+     */
+    public void prepareLike(Lexicon previous) {
+        if (previous == null) {
+            return;
+        }
+        if (previous.gaddag != null) {
+            getGaddag();
+        }
+        if (previous.anagramIndex != null) {
+            getAnagramIndex();
+        }
+        if (previous.rackLeaves != null) {
+            getRackLeaves();
+        }
+    }
+
+    public boolean isValidWord(String word) {
+        if (word == null) {
+            return false;
+        }
+
+        int start = 0;
+        int end = word.length();
+        while (start < end && Character.isWhitespace(word.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(word.charAt(end - 1))) {
+            end--;
+        }
+        return isValidWord(word, start, end - start);
+    }
+
+    /**
+     * Проверка слова без создания объектов: буквы A-Z в любом регистре
+     * проверяются на месте, затем фильтр Блума и граф словаря
+     */
+    public boolean isValidWord(CharSequence word, int offset, int length) {
+        if (word == null || length <= 0) {
+            return false;
+        }
+        for (int i = offset; i < offset + length; i++) {
+            if (!isLetter(word.charAt(i))) {
+                return false;
+            }
+        }
+
+        if (!bloomFilter.mightContain(word, offset, length)) {
+            return false;
+        }
+        boolean isValid = dictionary.contains(word, offset, length);
+        if (!isValid) {
+            bloomFilter.recordFalsePositive();
+        }
+        return isValid;
+    }
+
+    public boolean isValidWord(char[] word, int offset, int length) {
+        if (word == null || length <= 0) {
+            return false;
+        }
+        for (int i = offset; i < offset + length; i++) {
+            if (!isLetter(word[i])) {
+                return false;
+            }
+        }
+
+        if (!bloomFilter.mightContain(word, offset, length)) {
+            return false;
+        }
+        boolean isValid = dictionary.contains(word, offset, length);
+        if (!isValid) {
+            bloomFilter.recordFalsePositive();
+        }
+        return isValid;
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+    }
+
+    public boolean hasWordsWithPrefix(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return false;
+        }
+
+        return dictionary.hasPrefix(prefix);
+    }
+
+    public Set<String> getWordsOfLength(int length) {
+        Set<String> result = new HashSet<>();
+        if (length > 0) {
+            dictionary.match("?".repeat(length), result::add);
+        }
+        return result;
+    }
+
+    public Set<String> findWordsByPattern(String pattern) {
+        if (pattern == null || pattern.isEmpty()) {
+            return new HashSet<>();
+        }
+
+        Set<String> result = new HashSet<>();
+        dictionary.match(pattern, result::add);
+        return result;
+    }
+
+    /**
+     * Все слова из двух и более букв, которые можно составить из фишек стойки ('?' - бланк)
+     */
+    public Set<String> findWordsFromRack(String rack) {
+        if (rack == null || rack.isEmpty()) {
+            return new HashSet<>();
+        }
+
+        return new HashSet<>(getAnagramIndex().findWords(rack, 2));
+    }
+
+    /**
+     * Память под уже построенные структуры (отображённый граф считается тоже)
+     */
+    public long getSizeInBytes() {
+        long size = dictionary.getSizeInBytes() + bloomFilter.getSizeInBytes();
+        Gaddag builtGaddag = gaddag;
+        if (builtGaddag != null) {
+            size += builtGaddag.getGraph().getSizeInBytes();
+        }
+        AnagramIndex builtIndex = anagramIndex;
+        if (builtIndex != null) {
+            size += builtIndex.getSizeInBytes();
+        }
+        RackLeaves builtLeaves = rackLeaves;
+        if (builtLeaves != null) {
+            size += builtLeaves.getSizeInBytes();
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "Lexicon[" + name + ", " + dictionary.getWordCount() + " words, " + getSizeInBytes() / 1024 + " KB]";
+    }
+}
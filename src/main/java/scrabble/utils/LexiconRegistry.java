@@ -0,0 +1,313 @@
+package scrabble.utils;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Реестр словарей для комнат. Кроме словаря по умолчанию доступны списки
+ * слов из каталога scrabble.lexicon.dir (по умолчанию ./dictionaries):
+ * файл english-sowpods.txt даёт словарь "english-sowpods". Словарь
+ * загружается при первом запросе, одна копия разделяется всеми комнатами,
+ * которые его выбрали, и выгружается, когда последняя такая комната закрыта.
+ * Словарь по умолчанию не выгружается.
+ *
+ * Комната держит не сам словарь, а {@link Handle}: при перезагрузке новый
+ * словарь собирается в фоне и подменяется в нём одной volatile-записью.
+ */
+public class LexiconRegistry {
+    public static final String DIRECTORY_PROPERTY = "scrabble.lexicon.dir";
+    private static final String WORD_LIST_EXTENSION = ".txt";
+
+    private final Path directory;
+    private final Map<String, Handle> entries = new HashMap<>();
+    private final ExecutorService reloader = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "lexicon-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public LexiconRegistry() {
+        this(Paths.get(System.getProperty(DIRECTORY_PROPERTY, "dictionaries")));
+    }
+
+    public LexiconRegistry(Path directory) {
+        this.directory = directory;
+    }
+
+    public static final class Handle {
+        private final String name;
+        private final Path wordList;
+        private int rooms;
+        private volatile Lexicon lexicon;
+
+        private Handle(String name, Path wordList) {
+            this.name = name;
+            this.wordList = wordList;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Текущая версия словаря. Проверка хода должна взять её один раз
+         * и работать с ней до конца, даже если словарь тем временем подменят.
+         */
+        public Lexicon get() {
+            return lexicon;
+        }
+
+        /**
+         * Загрузка под замком записи, а не реестра: комнаты с другими
+         * словарями не ждут, пока грузится этот
+         */
+        private synchronized Lexicon load() throws IOException {
+            if (lexicon == null) {
+                lexicon = wordList == null
+                        ? DictionaryLoader.loadLexicon()
+                        : DictionaryLoader.loadLexicon(name, List.of(wordList));
+            }
+            return lexicon;
+        }
+    }
+
+    /**
+     * Выдаёт словарь комнате и увеличивает счётчик его пользователей.
+     * Пустое имя означает словарь по умолчанию.
+     */
+    public Handle acquire(String name) throws IOException {
+        String key = normalizeName(name);
+        Path wordList = null;
+        if (!DictionaryLoader.DEFAULT_LEXICON.equals(key)) {
+            wordList = directory.resolve(key + WORD_LIST_EXTENSION);
+            if (!Files.isRegularFile(wordList)) {
+                throw new IllegalArgumentException("Unknown dictionary: " + name);
+            }
+        }
+
+        Handle handle;
+        synchronized (this) {
+            Path source = wordList;
+            handle = entries.computeIfAbsent(key, k -> new Handle(k, source));
+            handle.rooms++;
+        }
+        try {
+            handle.load();
+            return handle;
+        } catch (IOException | RuntimeException e) {
+            release(key);
+            throw e;
+        }
+    }
+
+    /**
+     * Комната больше не пользуется словарём; последний пользователь выгружает его
+     */
+    public synchronized void release(String name) {
+        String key = normalizeName(name);
+        Handle handle = entries.get(key);
+        if (handle == null || --handle.rooms > 0) {
+            return;
+        }
+        entries.remove(key);
+        if (handle.lexicon != null && !DictionaryLoader.DEFAULT_LEXICON.equals(key)) {
+            System.out.println("Evicted unused lexicon " + handle.lexicon + ", lookups: "
+                    + handle.lexicon.getBloomFilter());
+        }
+    }
+
+    /**
+     * Перезагружает словарь по умолчанию и все словари, которыми пользуются комнаты
+     */
+    public List<CompletableFuture<ReloadReport>> reloadAll() {
+        TreeSet<String> names = new TreeSet<>();
+        names.add(DictionaryLoader.DEFAULT_LEXICON);
+        synchronized (this) {
+            names.addAll(entries.keySet());
+        }
+        List<CompletableFuture<ReloadReport>> reports = new ArrayList<>();
+        for (String name : names) {
+            reports.add(reload(name));
+        }
+        return reports;
+    }
+
+    /**
+     * Собирает словарь заново в фоновом потоке и атомарно подменяет его.
+     * Ходы, которые уже проверяются, доработают на старой версии; она
+     * освободится, когда на неё не останется ссылок.
+     */
+    public CompletableFuture<ReloadReport> reload(String name) {
+        String key = normalizeName(name);
+        return CompletableFuture.supplyAsync(() -> {
+            Handle handle;
+            synchronized (this) {
+                handle = entries.get(key);
+            }
+            try {
+                if (DictionaryLoader.DEFAULT_LEXICON.equals(key)) {
+                    return swap(key, DictionaryLoader.loadLexicon(), handle, DictionaryLoader::reloadLexicon);
+                }
+                if (handle == null || handle.lexicon == null) {
+                    throw new IllegalArgumentException("Dictionary " + key + " is not in use");
+                }
+                return swap(key, handle.lexicon, handle, () -> {
+                    Lexicon next = DictionaryLoader.loadLexicon(key, List.of(handle.wordList));
+                    next.prepareLike(handle.lexicon);
+                    return next;
+                });
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to reload dictionary " + key + ": " + e.getMessage(), e);
+            }
+        }, reloader);
+    }
+
+    private interface LexiconBuilder {
+        Lexicon build() throws IOException;
+    }
+
+    private ReloadReport swap(String name, Lexicon previous, Handle handle, LexiconBuilder builder)
+            throws IOException {
+        Runtime runtime = Runtime.getRuntime();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        long start = System.nanoTime();
+
+        Lexicon next = builder.build();
+        long built = System.nanoTime();
+        if (handle != null) {
+            synchronized (handle) {
+                handle.lexicon = next;
+            }
+        }
+
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        ReloadReport report = new ReloadReport(name, previous, next, (built - start) / 1_000_000,
+                heapAfter - heapBefore);
+        System.out.println(report);
+        return report;
+    }
+
+    /**
+     * Итог перезагрузки: время сборки и изменение занятой памяти
+     */
+    public static final class ReloadReport {
+        private final String name;
+        private final int previousWords;
+        private final int words;
+        private final long previousSize;
+        private final long size;
+        private final long buildMillis;
+        private final long heapDelta;
+
+        ReloadReport(String name, Lexicon previous, Lexicon next, long buildMillis, long heapDelta) {
+            this.name = name;
+            this.previousWords = previous.getDictionary().getWordCount();
+            this.words = next.getDictionary().getWordCount();
+            this.previousSize = previous.getSizeInBytes();
+            this.size = next.getSizeInBytes();
+            this.buildMillis = buildMillis;
+            this.heapDelta = heapDelta;
+        }
+
+        public String getName() { return name; }
+        public int getPreviousWordCount() { return previousWords; }
+        public int getWordCount() { return words; }
+        public long getPreviousSizeInBytes() { return previousSize; }
+        public long getSizeInBytes() { return size; }
+        public long getBuildMillis() { return buildMillis; }
+
+        /**
+         * Прирост занятой кучи за время сборки (старая версия ещё не собрана GC)
+         */
+        public long getHeapDelta() { return heapDelta; }
+
+        @Override
+        public String toString() {
+            return String.format("Reloaded lexicon %s in %d ms: %d -> %d words, %d -> %d KB, heap %+d KB",
+                    name, buildMillis, previousWords, words, previousSize / 1024, size / 1024, heapDelta / 1024);
+        }
+    }
+
+    /**
+     * Имена всех словарей, которые можно выбрать при создании комнаты
+     */
+    public List<String> getInstalledLexicons() {
+        TreeSet<String> names = new TreeSet<>();
+        names.add(DictionaryLoader.DEFAULT_LEXICON);
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + WORD_LIST_EXTENSION)) {
+                for (Path file : files) {
+                    String fileName = file.getFileName().toString();
+                    String name = fileName.substring(0, fileName.length() - WORD_LIST_EXTENSION.length());
+                    if (isValidName(name) && name.equals(name.toLowerCase())) {
+                        names.add(name);
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Error while listing dictionaries in " + directory + ": " + e.getMessage());
+            }
+        }
+        return new ArrayList<>(names);
+    }
+
+    /**
+     * Счётчики фильтра Блума словаря по умолчанию и всех загруженных
+     * словарей комнат, по строке на словарь
+     */
+    public List<String> getLookupStats() {
+        Map<String, Lexicon> loaded = new TreeMap<>();
+        loaded.put(DictionaryLoader.DEFAULT_LEXICON, DictionaryLoader.loadLexicon());
+        synchronized (this) {
+            for (Handle handle : entries.values()) {
+                Lexicon lexicon = handle.lexicon;
+                if (lexicon != null) {
+                    loaded.put(handle.name, lexicon);
+                }
+            }
+        }
+        List<String> stats = new ArrayList<>(loaded.size());
+        for (Map.Entry<String, Lexicon> entry : loaded.entrySet()) {
+            stats.add(entry.getKey() + ": " + entry.getValue().getBloomFilter());
+        }
+        return stats;
+    }
+
+    private static String normalizeName(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            return DictionaryLoader.DEFAULT_LEXICON;
+        }
+        String key = name.trim().toLowerCase();
+        if (!isValidName(key)) {
+            throw new IllegalArgumentException("Unknown dictionary: " + name);
+        }
+        return key;
+    }
+
+    /**
+     * Только буквы, цифры, '-' и '_', чтобы имя не выводило за пределы каталога
+     */
+    private static boolean isValidName(String name) {
+        if (name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '-' && c != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
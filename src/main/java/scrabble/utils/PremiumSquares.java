@@ -0,0 +1,93 @@
+package scrabble.utils;
+
+import java.util.Arrays;
+
+/**
+ * Единая раскладка премиальных клеток стандартной доски 15x15 для клиента
+ * и сервера. Множители лежат в неизменяемых byte-массивах по индексу
+ * row * 15 + col, так что подсчёт очков обходится без сравнения строк.
+ */
+public final class PremiumSquares {
+    public static final int SIZE = 15;
+    public static final int CENTER = 7;
+
+    public static final String DOUBLE_LETTER = "DL";
+    public static final String TRIPLE_LETTER = "TL";
+    public static final String DOUBLE_WORD = "DW";
+    public static final String TRIPLE_WORD = "TW";
+
+    private static final byte[] LETTER_MULTIPLIERS = new byte[SIZE * SIZE];
+    private static final byte[] WORD_MULTIPLIERS = new byte[SIZE * SIZE];
+
+    static {
+        Arrays.fill(LETTER_MULTIPLIERS, (byte) 1);
+        Arrays.fill(WORD_MULTIPLIERS, (byte) 1);
+
+        int[][] tripleWord = {{0, 0}, {0, 7}, {0, 14}, {7, 0}, {7, 14}, {14, 0}, {14, 7}, {14, 14}};
+        for (int[] cell : tripleWord) {
+            WORD_MULTIPLIERS[cell[0] * SIZE + cell[1]] = 3;
+        }
+
+        for (int i = 1; i <= 4; i++) {
+            WORD_MULTIPLIERS[i * SIZE + i] = 2;
+            WORD_MULTIPLIERS[i * SIZE + (14 - i)] = 2;
+            WORD_MULTIPLIERS[(14 - i) * SIZE + i] = 2;
+            WORD_MULTIPLIERS[(14 - i) * SIZE + (14 - i)] = 2;
+        }
+        WORD_MULTIPLIERS[CENTER * SIZE + CENTER] = 2;
+
+        int[][] tripleLetter = {{1, 5}, {1, 9}, {5, 1}, {5, 5}, {5, 9}, {5, 13},
+                {9, 1}, {9, 5}, {9, 9}, {9, 13}, {13, 5}, {13, 9}};
+        for (int[] cell : tripleLetter) {
+            LETTER_MULTIPLIERS[cell[0] * SIZE + cell[1]] = 3;
+        }
+
+        int[][] doubleLetter = {{0, 3}, {0, 11}, {2, 6}, {2, 8}, {3, 0}, {3, 7}, {3, 14},
+                {6, 2}, {6, 6}, {6, 8}, {6, 12}, {7, 3}, {7, 11},
+                {8, 2}, {8, 6}, {8, 8}, {8, 12}, {11, 0}, {11, 7}, {11, 14},
+                {12, 6}, {12, 8}, {14, 3}, {14, 11}};
+        for (int[] cell : doubleLetter) {
+            LETTER_MULTIPLIERS[cell[0] * SIZE + cell[1]] = 2;
+        }
+    }
+
+    private PremiumSquares() {
+    }
+
+    public static int letterMultiplier(int square) {
+        return LETTER_MULTIPLIERS[square];
+    }
+
+    public static int wordMultiplier(int square) {
+        return WORD_MULTIPLIERS[square];
+    }
+
+    public static int letterMultiplier(int row, int col) {
+        return LETTER_MULTIPLIERS[row * SIZE + col];
+    }
+
+    public static int wordMultiplier(int row, int col) {
+        return WORD_MULTIPLIERS[row * SIZE + col];
+    }
+
+    /**
+     * Тип клетки ("DL", "TL", "DW", "TW") или null для обычной клетки
+     */
+    public static String getType(int row, int col) {
+        int square = row * SIZE + col;
+        switch (WORD_MULTIPLIERS[square]) {
+            case 3: return TRIPLE_WORD;
+            case 2: return DOUBLE_WORD;
+            default: break;
+        }
+        switch (LETTER_MULTIPLIERS[square]) {
+            case 3: return TRIPLE_LETTER;
+            case 2: return DOUBLE_LETTER;
+            default: return null;
+        }
+    }
+
+    public static boolean isCenter(int row, int col) {
+        return row == CENTER && col == CENTER;
+    }
+}
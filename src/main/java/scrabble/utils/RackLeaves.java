@@ -0,0 +1,187 @@
+package scrabble.utils;
+
+/**
+ * Таблица оценок оставшихся на стойке фишек (leave) для всех наборов до 6
+ * фишек из 27 видов (26 букв и бланк). Набор задаётся числом фишек каждого
+ * вида по индексам {@link Zobrist#tileType}; его номер в таблице - ранг
+ * мультимножества в комбинаторной системе счисления, без коллизий и
+ * пропусков, так что вся таблица - один массив float на C(33, 6) элементов.
+ *
+ * Оценки эвристические и строятся по словарю: буква стоит тем больше, чем
+ * чаще она встречается в коротких словах относительно своей доли в мешке.
+ * Поверх этого штрафуются повторы, перекос гласных и согласных и Q без U.
+ */
+public final class RackLeaves {
+    public static final int MAX_TILES = 6;
+    private static final int TYPES = Zobrist.TILE_TYPES;
+    private static final int BLANK = TYPES - 1;
+
+    // слова длиннее стойки с одной-двумя фишками доски для оценки букв не нужны
+    private static final int MAX_WORD_LENGTH = 8;
+    private static final float LETTER_SCALE = 4.0f;
+    private static final float BLANK_VALUE = 20.0f;
+    private static final float DUPLICATE_PENALTY = 3.0f;
+    private static final float BALANCE_PENALTY = 2.0f;
+    private static final float VOWEL_SHARE = 0.4f;
+    private static final float Q_WITHOUT_U_PENALTY = 4.0f;
+
+    // BINOMIAL[n][k] = C(n, k) для всех n и k, которые нужны рангу
+    private static final int[][] BINOMIAL = new int[TYPES + MAX_TILES][MAX_TILES + 1];
+    // OFFSETS[k] - число наборов меньше чем из k фишек
+    private static final int[] OFFSETS = new int[MAX_TILES + 2];
+
+    static {
+        for (int n = 0; n < BINOMIAL.length; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, MAX_TILES); k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k < n ? BINOMIAL[n - 1][k] : 0);
+            }
+        }
+        for (int k = 0; k <= MAX_TILES; k++) {
+            OFFSETS[k + 1] = OFFSETS[k] + BINOMIAL[TYPES + k - 1][k];
+        }
+    }
+
+    private final float[] values;
+    private final float[] letterValues;
+
+    private RackLeaves(float[] values, float[] letterValues) {
+        this.values = values;
+        this.letterValues = letterValues;
+    }
+
+    public static RackLeaves fromDawg(Dawg dawg) {
+        long[] wordsWith = new long[26];
+        long[] wordCount = new long[1];
+        dawg.forEachWord(word -> {
+            if (word.length() < 2 || word.length() > MAX_WORD_LENGTH) {
+                return;
+            }
+            int mask = 0;
+            for (int i = 0; i < word.length(); i++) {
+                mask |= 1 << (word.charAt(i) - 'A');
+            }
+            for (; mask != 0; mask &= mask - 1) {
+                wordsWith[Integer.numberOfTrailingZeros(mask)]++;
+            }
+            wordCount[0]++;
+        });
+
+        // логарифм отношения доли слов с буквой к доле буквы в мешке, от среднего по буквам
+        double[] logRatios = new double[26];
+        double meanLogRatio = 0;
+        for (int type = 0; type < 26; type++) {
+            char letter = (char) ('A' + type);
+            double share = (wordsWith[type] + 1.0) / (wordCount[0] + 1.0);
+            logRatios[type] = Math.log(share * 100 / TileBag.getInitialCount(letter));
+            meanLogRatio += logRatios[type] / 26;
+        }
+        float[] letterValues = new float[TYPES];
+        for (int type = 0; type < 26; type++) {
+            letterValues[type] = (float) (LETTER_SCALE * (logRatios[type] - meanLogRatio));
+        }
+        letterValues[BLANK] = BLANK_VALUE;
+
+        float[] values = new float[OFFSETS[MAX_TILES + 1]];
+        fill(values, letterValues, new int[TYPES], 0, 0);
+        return new RackLeaves(values, letterValues);
+    }
+
+    /**
+     * Перебирает все наборы, добавляя фишки видов не меньше type
+     */
+    private static void fill(float[] values, float[] letterValues, int[] counts, int type, int size) {
+        values[index(counts)] = evaluate(counts, size, letterValues);
+        if (size == MAX_TILES) {
+            return;
+        }
+        for (int next = type; next < TYPES; next++) {
+            counts[next]++;
+            fill(values, letterValues, counts, next, size + 1);
+            counts[next]--;
+        }
+    }
+
+    private static float evaluate(int[] counts, int size, float[] letterValues) {
+        float value = 0;
+        int vowels = 0;
+        int letters = 0;
+        for (int type = 0; type < TYPES; type++) {
+            int count = counts[type];
+            if (count == 0) {
+                continue;
+            }
+            value += count * letterValues[type];
+            value -= DUPLICATE_PENALTY * count * (count - 1) / 2;
+            if (type != BLANK) {
+                letters += count;
+                if (TileBag.isVowel((char) ('A' + type))) {
+                    vowels += count;
+                }
+            }
+        }
+        value -= BALANCE_PENALTY * Math.max(0, Math.abs(vowels - VOWEL_SHARE * letters) - 0.5f);
+        if (counts['Q' - 'A'] > 0 && counts['U' - 'A'] == 0) {
+            value -= Q_WITHOUT_U_PENALTY;
+        }
+        return size == 0 ? 0 : value;
+    }
+
+    /**
+     * Номер набора в таблице или -1, если в нём больше {@link #MAX_TILES} фишек.
+     * Фишки, упорядоченные по виду t1 <= t2 <= ... <= tk, дают возрастающие
+     * числа ti + i - 1; их ранг среди k-сочетаний - сумма C(ti + i - 1, i).
+     */
+    public static int index(int[] counts) {
+        int rank = 0;
+        int size = 0;
+        for (int type = 0; type < TYPES; type++) {
+            for (int copy = 0; copy < counts[type]; copy++) {
+                if (size == MAX_TILES) {
+                    return -1;
+                }
+                size++;
+                rank += BINOMIAL[type + size - 1][size];
+            }
+        }
+        return OFFSETS[size] + rank;
+    }
+
+    /**
+     * Оценка набора по числу фишек каждого вида; для слишком большого набора 0
+     */
+    public float getValue(int[] counts) {
+        int index = index(counts);
+        return index < 0 ? 0 : values[index];
+    }
+
+    public float getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * Оценка набора букв; пробел или '?' - бланк
+     */
+    public float getValue(CharSequence leave) {
+        int[] counts = new int[TYPES];
+        for (int i = 0; i < leave.length(); i++) {
+            counts[Zobrist.tileType(leave.charAt(i))]++;
+        }
+        return getValue(counts);
+    }
+
+    /**
+     * Оценка одной фишки без поправок за сочетание с другими
+     */
+    public float getLetterValue(char letter) {
+        return letterValues[Zobrist.tileType(letter)];
+    }
+
+    public int getSize() {
+        return values.length;
+    }
+
+    public long getSizeInBytes() {
+        return (long) values.length * Float.BYTES + (long) letterValues.length * Float.BYTES;
+    }
+}
@@ -8,6 +8,8 @@ import java.util.Random;
 public class TileBag {
     private List<Tile> tiles;
     private final Random random;
+    private final int[] counts = new int[Zobrist.TILE_TYPES];
+    private long hash;
 
     public static class Tile {
         private final String id;
@@ -20,6 +22,15 @@ public class TileBag {
             this.id = generateId();
         }
 
+        /**
+         * Фишка, которую раздал сервер: идентификатор приходит вместе с ней
+         */
+        public Tile(String id, char letter, int points) {
+            this.id = id;
+            this.letter = letter;
+            this.points = points;
+        }
+
         private String generateId() {
             return letter + "_" + System.currentTimeMillis() + "_" + (new Random()).nextInt(1000);
         }
@@ -51,33 +62,10 @@ public class TileBag {
         tiles = new ArrayList<>();
 
 
-        addTile('A', 1, 9);
-        addTile('B', 3, 2);
-        addTile('C', 3, 2);
-        addTile('D', 2, 4);
-        addTile('E', 1, 12);
-        addTile('F', 4, 2);
-        addTile('G', 2, 3);
-        addTile('H', 4, 2);
-        addTile('I', 1, 9);
-        addTile('J', 8, 1);
-        addTile('K', 5, 1);
-        addTile('L', 1, 4);
-        addTile('M', 3, 2);
-        addTile('N', 1, 6);
-        addTile('O', 1, 8);
-        addTile('P', 3, 2);
-        addTile('Q', 10, 1);
-        addTile('R', 1, 6);
-        addTile('S', 1, 4);
-        addTile('T', 1, 6);
-        addTile('U', 1, 4);
-        addTile('V', 4, 2);
-        addTile('W', 4, 2);
-        addTile('X', 8, 1);
-        addTile('Y', 4, 2);
-        addTile('Z', 10, 1);
-        addTile(' ', 0, 2);
+        for (char letter = 'A'; letter <= 'Z'; letter++) {
+            addTile(letter, getLetterValue(letter), getInitialCount(letter));
+        }
+        addTile(' ', 0, getInitialCount(' '));
 
         System.out.println("Initialized bag with " + tiles.size() + " English tiles");
         shuffle();
@@ -85,7 +73,9 @@ public class TileBag {
 
     private void addTile(char letter, int points, int count) {
         for (int i = 0; i < count; i++) {
-            tiles.add(new Tile(letter, points));
+            Tile tile = new Tile(letter, points);
+            tiles.add(tile);
+            hashIn(tile);
         }
     }
 
@@ -97,14 +87,41 @@ public class TileBag {
         if (tiles.isEmpty()) {
             return null;
         }
-        return tiles.remove(tiles.size() - 1);
+        Tile tile = tiles.remove(tiles.size() - 1);
+        hashOut(tile);
+        return tile;
     }
 
     public synchronized void returnTile(Tile tile) {
         tiles.add(tile);
+        hashIn(tile);
         shuffle();
     }
 
+    /**
+     * Хэш Зобриста содержимого мешка; порядок фишек на него не влияет
+     */
+    public synchronized long getHash() {
+        return hash;
+    }
+
+    /**
+     * Сколько фишек каждого вида в мешке, по индексам {@link Zobrist#tileType}
+     */
+    public synchronized int[] getLetterCounts() {
+        return counts.clone();
+    }
+
+    private void hashIn(Tile tile) {
+        int type = Zobrist.tileType(tile.getLetter());
+        hash ^= Zobrist.bagTile(tile.getLetter(), counts[type]++);
+    }
+
+    private void hashOut(Tile tile) {
+        int type = Zobrist.tileType(tile.getLetter());
+        hash ^= Zobrist.bagTile(tile.getLetter(), --counts[type]);
+    }
+
     public synchronized int remainingTiles() {
         return tiles.size();
     }
@@ -138,6 +155,25 @@ public class TileBag {
     }
 
 
+    /**
+     * Сколько фишек буквы в полном наборе; пробел - бланк
+     */
+    public static int getInitialCount(char letter) {
+        char upperLetter = Character.toUpperCase(letter);
+        return switch (upperLetter) {
+            case 'E' -> 12;
+            case 'A', 'I' -> 9;
+            case 'O' -> 8;
+            case 'N', 'R', 'T' -> 6;
+            case 'D', 'L', 'S', 'U' -> 4;
+            case 'G' -> 3;
+            case 'B', 'C', 'F', 'H', 'M', 'P', 'V', 'W', 'Y', ' ' -> 2;
+            case 'J', 'K', 'Q', 'X', 'Z' -> 1;
+            default -> 0;
+        };
+    }
+
+
     public static boolean isVowel(char letter) {
         char upperLetter = Character.toUpperCase(letter);
         return upperLetter == 'A' || upperLetter == 'E' || upperLetter == 'I' || upperLetter == 'O'
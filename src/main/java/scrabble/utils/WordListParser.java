@@ -0,0 +1,317 @@
+package scrabble.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Параллельный разбор списков слов прямо из байтов. Файл делится на куски
+ * по границам строк, куски разбираются и сортируются в ForkJoinPool, а
+ * результаты сливаются попарно (параллельная сортировка слиянием) и подаются
+ * в {@link Dawg.Builder} без создания строк. Формат строки тот же, что у
+ * dictionary.txt: слово из латинских букв, возможно в кавычках.
+ */
+public final class WordListParser {
+    private static final int CHUNK_SIZE = 256 * 1024;
+
+    private final ForkJoinPool pool;
+    private long parseMillis;
+    private long buildMillis;
+    private int chunkCount;
+    private int lineCount;
+
+    public WordListParser() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public WordListParser(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public Dawg parse(byte[] source) {
+        return parse(List.of(source));
+    }
+
+    /**
+     * Разбирает один или несколько списков и строит по их объединению граф
+     */
+    public Dawg parse(List<byte[]> sources) {
+        long start = System.nanoTime();
+        chunkCount = 0;
+        lineCount = 0;
+
+        List<ChunkTask> tasks = new ArrayList<>();
+        for (byte[] source : sources) {
+            tasks.add(new ChunkTask(source, 0, source.length));
+        }
+        WordBlock words = pool.invoke(new MergeTask(tasks));
+        long parsed = System.nanoTime();
+
+        Dawg.Builder builder = new Dawg.Builder();
+        for (int i = 0; i < words.count; i++) {
+            builder.add(words.letters, words.starts[i], words.starts[i + 1] - words.starts[i]);
+        }
+        Dawg dawg = builder.build();
+        long built = System.nanoTime();
+
+        parseMillis = (parsed - start) / 1_000_000;
+        buildMillis = (built - parsed) / 1_000_000;
+        for (ChunkTask task : tasks) {
+            chunkCount += task.chunks;
+            lineCount += task.lines;
+        }
+        return dawg;
+    }
+
+    public long getParseMillis() {
+        return parseMillis;
+    }
+
+    public long getBuildMillis() {
+        return buildMillis;
+    }
+
+    public String describeLastRun() {
+        return lineCount + " lines in " + chunkCount + " chunks parsed and merged in " + parseMillis
+                + " ms on " + pool.getParallelism() + " threads, DAWG built in " + buildMillis + " ms";
+    }
+
+    /**
+     * Отсортированный набор уникальных слов: заглавные буквы подряд и начала слов
+     */
+    private static final class WordBlock {
+        final byte[] letters;
+        final int[] starts;
+        final int count;
+
+        WordBlock(byte[] letters, int[] starts, int count) {
+            this.letters = letters;
+            this.starts = starts;
+            this.count = count;
+        }
+
+        int compare(int i, WordBlock other, int j) {
+            int a = starts[i];
+            int aEnd = starts[i + 1];
+            int b = other.starts[j];
+            int bEnd = other.starts[j + 1];
+            while (a < aEnd && b < bEnd) {
+                int diff = letters[a++] - other.letters[b++];
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return (aEnd - a) - (bEnd - b);
+        }
+    }
+
+    private static final class MergeTask extends RecursiveTask<WordBlock> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<? extends RecursiveTask<WordBlock>> parts;
+
+        MergeTask(List<? extends RecursiveTask<WordBlock>> parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        protected WordBlock compute() {
+            invokeAll(parts);
+            WordBlock result = parts.get(0).join();
+            for (int i = 1; i < parts.size(); i++) {
+                result = merge(result, parts.get(i).join());
+            }
+            return result;
+        }
+    }
+
+    private static final class ChunkTask extends RecursiveTask<WordBlock> {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] source;
+        private final int from;
+        private final int to;
+        int chunks;
+        int lines;
+
+        ChunkTask(byte[] source, int from, int to) {
+            this.source = source;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected WordBlock compute() {
+            if (to - from <= CHUNK_SIZE) {
+                chunks = 1;
+                return parseChunk();
+            }
+
+            int middle = from + (to - from) / 2;
+            while (middle < to && source[middle - 1] != '\n') {
+                middle++;
+            }
+            if (middle >= to) {
+                chunks = 1;
+                return parseChunk();
+            }
+
+            ChunkTask left = new ChunkTask(source, from, middle);
+            ChunkTask right = new ChunkTask(source, middle, to);
+            right.fork();
+            WordBlock leftWords = left.compute();
+            WordBlock rightWords = right.join();
+            chunks = left.chunks + right.chunks;
+            lines = left.lines + right.lines;
+            return merge(leftWords, rightWords);
+        }
+
+        private WordBlock parseChunk() {
+            byte[] letters = new byte[to - from];
+            int[] starts = new int[1024];
+            int count = 0;
+            int position = 0;
+
+            int lineStart = from;
+            while (lineStart < to) {
+                int lineEnd = lineStart;
+                while (lineEnd < to && source[lineEnd] != '\n') {
+                    lineEnd++;
+                }
+                lines++;
+
+                int start = lineStart;
+                int end = lineEnd;
+                // байты UTF-8 вне ASCII отрицательны и пробелами не считаются
+                while (start < end && (source[start] & 0xFF) <= ' ') {
+                    start++;
+                }
+                while (end > start && (source[end - 1] & 0xFF) <= ' ') {
+                    end--;
+                }
+                if (end - start >= 2 && source[start] == '"' && source[end - 1] == '"') {
+                    start++;
+                    end--;
+                }
+
+                boolean valid = start < end;
+                for (int i = start; i < end && valid; i++) {
+                    byte c = source[i];
+                    valid = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z');
+                }
+                if (valid) {
+                    if (count + 2 > starts.length) {
+                        starts = Arrays.copyOf(starts, starts.length * 2);
+                    }
+                    starts[count++] = position;
+                    for (int i = start; i < end; i++) {
+                        letters[position++] = (byte) (source[i] & 0xDF);
+                    }
+                }
+                lineStart = lineEnd + 1;
+            }
+            starts[count] = position;
+            return sortUnique(new WordBlock(letters, starts, count));
+        }
+    }
+
+    /**
+     * Сортирует слова куска слиянием по индексам и убирает дубликаты
+     */
+    private static WordBlock sortUnique(WordBlock block) {
+        int[] order = new int[block.count];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        int[] buffer = new int[order.length];
+        for (int width = 1; width < order.length; width <<= 1) {
+            for (int low = 0; low < order.length; low += width << 1) {
+                int middle = Math.min(low + width, order.length);
+                int high = Math.min(low + (width << 1), order.length);
+                int i = low;
+                int j = middle;
+                int k = low;
+                while (i < middle && j < high) {
+                    buffer[k++] = block.compare(order[i], block, order[j]) <= 0 ? order[i++] : order[j++];
+                }
+                while (i < middle) {
+                    buffer[k++] = order[i++];
+                }
+                while (j < high) {
+                    buffer[k++] = order[j++];
+                }
+            }
+            int[] swap = order;
+            order = buffer;
+            buffer = swap;
+        }
+
+        byte[] letters = new byte[block.starts[block.count]];
+        int[] starts = new int[block.count + 1];
+        int count = 0;
+        int position = 0;
+        int previous = -1;
+        for (int index : order) {
+            if (previous >= 0 && block.compare(index, block, previous) == 0) {
+                continue;
+            }
+            previous = index;
+            starts[count++] = position;
+            for (int i = block.starts[index]; i < block.starts[index + 1]; i++) {
+                letters[position++] = block.letters[i];
+            }
+        }
+        starts[count] = position;
+        return new WordBlock(letters, starts, count);
+    }
+
+    /**
+     * Сливает два отсортированных набора в один, убирая повторы
+     */
+    private static WordBlock merge(WordBlock a, WordBlock b) {
+        if (a.count == 0) {
+            return b;
+        }
+        if (b.count == 0) {
+            return a;
+        }
+
+        byte[] letters = new byte[a.starts[a.count] + b.starts[b.count]];
+        int[] starts = new int[a.count + b.count + 1];
+        int count = 0;
+        int position = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.count || j < b.count) {
+            WordBlock from;
+            int index;
+            if (j >= b.count) {
+                from = a;
+                index = i++;
+            } else if (i >= a.count) {
+                from = b;
+                index = j++;
+            } else {
+                int diff = a.compare(i, b, j);
+                if (diff == 0) {
+                    j++;
+                }
+                if (diff <= 0) {
+                    from = a;
+                    index = i++;
+                } else {
+                    from = b;
+                    index = j++;
+                }
+            }
+            starts[count++] = position;
+            for (int k = from.starts[index]; k < from.starts[index + 1]; k++) {
+                letters[position++] = from.letters[k];
+            }
+        }
+        starts[count] = position;
+        return new WordBlock(letters, starts, count);
+    }
+}
@@ -0,0 +1,94 @@
+package scrabble.utils;
+
+import java.util.SplittableRandom;
+
+/**
+ * Случайные 64-битные ключи для хэширования позиций по Зобристу. Хэш доски -
+ * XOR ключей всех лежащих фишек, поэтому при постановке фишки он обновляется
+ * одной операцией. Ключи порождаются из фиксированного зерна и одинаковы во
+ * всех запусках сервера.
+ *
+ * Стойки и мешок - мультимножества фишек: n-я фишка одной буквы даёт ключ
+ * (буква, n), так что хэш не зависит от порядка фишек и тоже обновляется
+ * за одну операцию при взятии или возврате фишки.
+ */
+public final class Zobrist {
+    public static final int SQUARES = 15 * 15;
+    // 0-25 - обычные фишки 'A'-'Z', 26-51 - бланки 'a'-'z', 52 - бланк без буквы
+    private static final int TILE_KINDS = 53;
+    // 0-25 - буквы, 26 - бланк
+    public static final int TILE_TYPES = 27;
+    public static final int MAX_SEATS = 4;
+    // Повторы одной буквы сверх этого числа используют ключи по кругу
+    private static final int MAX_COPIES = 16;
+    private static final long SEED = 0x5C4A8B1E15L;
+
+    private static final long[] TILES = new long[SQUARES * TILE_KINDS];
+    private static final long[] RACK_TILES = new long[MAX_SEATS * TILE_TYPES * MAX_COPIES];
+    private static final long[] BAG_TILES = new long[TILE_TYPES * MAX_COPIES];
+    private static final long[] TURNS = new long[MAX_SEATS];
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        fill(TILES, random);
+        fill(RACK_TILES, random);
+        fill(BAG_TILES, random);
+        fill(TURNS, random);
+    }
+
+    private static void fill(long[] keys, SplittableRandom random) {
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Ключ фишки letter (строчная - бланк) в клетке square = row * 15 + col
+     */
+    public static long tile(int square, char letter) {
+        return TILES[square * TILE_KINDS + tileKind(letter)];
+    }
+
+    /**
+     * Ключ copy-й (с нуля) фишки letter на стойке игрока seat. Бланк - любой
+     * символ, кроме букв.
+     */
+    public static long rackTile(int seat, char letter, int copy) {
+        return RACK_TILES[(seat % MAX_SEATS * TILE_TYPES + tileType(letter)) * MAX_COPIES + copy % MAX_COPIES];
+    }
+
+    /**
+     * Ключ copy-й (с нуля) фишки letter в мешке
+     */
+    public static long bagTile(char letter, int copy) {
+        return BAG_TILES[tileType(letter) * MAX_COPIES + copy % MAX_COPIES];
+    }
+
+    /**
+     * Ключ очереди хода игрока seat
+     */
+    public static long turn(int seat) {
+        return TURNS[seat % MAX_SEATS];
+    }
+
+    /**
+     * Тип фишки для стоек и мешка: 0-25 - буква в любом регистре, 26 - бланк
+     */
+    public static int tileType(char letter) {
+        char upper = Character.toUpperCase(letter);
+        return upper >= 'A' && upper <= 'Z' ? upper - 'A' : TILE_TYPES - 1;
+    }
+
+    private static int tileKind(char letter) {
+        if (letter >= 'A' && letter <= 'Z') {
+            return letter - 'A';
+        }
+        if (letter >= 'a' && letter <= 'z') {
+            return 26 + letter - 'a';
+        }
+        return 52;
+    }
+}
@@ -0,0 +1,86 @@
+package scrabble.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import scrabble.server.model.Board;
+import scrabble.server.model.ValidationContext;
+import scrabble.server.model.WordChecker;
+import scrabble.utils.DictionaryLoader;
+import scrabble.utils.Lexicon;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка хода в контексте потока против полной проверки с результатом для
+ * клиента. С профилировщиком GC строка gc.alloc.rate.norm у validateInContext
+ * должна быть около 0 B/op.
+ *
+ * Запуск: mvn test-compile, затем main этого класса с тестовым classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidateMoveBenchmark {
+    private Lexicon lexicon;
+    private Board board;
+    private int move;
+
+    // Ход с двумя поперечными словами, недопустимое поперечное слово и ход мимо фишек;
+    // все буквы каждого хода новые, поэтому число фишек в обоих замерах - длина слова
+    private static final String[] WORDS = {"AX", "QX", "CAT"};
+    private static final int[][] SQUARES = {{8, 5}, {6, 5}, {0, 0}};
+
+    @Setup
+    public void setUp() {
+        lexicon = DictionaryLoader.loadLexicon();
+        board = new Board(lexicon.getDictionary());
+        String house = "HOUSE";
+        for (int i = 0; i < house.length(); i++) {
+            board.place(7, 5 + i, house.charAt(i));
+        }
+        String earth = "EARTH";
+        for (int i = 1; i < earth.length(); i++) {
+            board.place(7 + i, 9, earth.charAt(i));
+        }
+    }
+
+    @Benchmark
+    public int validateInContext() {
+        int i = move++ % WORDS.length;
+        ValidationContext context = ValidationContext.current();
+        int status = context.validate(WORDS[i], SQUARES[i][0], SQUARES[i][1], true, board, WORDS[i].length(),
+                lexicon);
+        return status * 1000 + context.getScore();
+    }
+
+    @Benchmark
+    public WordChecker.ValidationResult validateToResult() {
+        int i = move++ % WORDS.length;
+        ValidationContext context = ValidationContext.current();
+        context.validate(WORDS[i], SQUARES[i][0], SQUARES[i][1], true, board, WORDS[i].length(),
+                lexicon);
+        return context.toResult();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ValidateMoveBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,72 @@
+package scrabble.server.model;
+
+import org.junit.jupiter.api.Test;
+import scrabble.utils.Dawg;
+import scrabble.utils.Lexicon;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoardTest {
+    private static final Dawg WORDS = Dawg.fromWords(new String[]{"AT", "CAT", "HOUSE", "HOUSES"});
+
+    // H4 O1 U1 S1 E1 S1 без премий: S встаёт на K8 - обычную клетку
+    private static final int HOUSES_SCORE = 9;
+
+    static Board boardWith(String word, int row, int col, boolean horizontal) {
+        Board board = new Board(WORDS);
+        for (int i = 0; i < word.length(); i++) {
+            board.place(horizontal ? row : row + i, horizontal ? col + i : col, word.charAt(i));
+        }
+        return board;
+    }
+
+    @Test
+    void placingOnOccupiedSquareFailsWithoutChangingBoard() {
+        Board board = boardWith("HOUSE", 7, 5, true);
+        long hash = board.getHash();
+        int anchors = board.getAnchorCount();
+
+        assertThrows(IllegalStateException.class, () -> board.place(7, 6, 'X'));
+        assertEquals(5, board.getTileCount());
+        assertEquals(hash, board.getHash());
+        assertEquals(anchors, board.getAnchorCount());
+        assertEquals('O', board.getLetter(7, 6));
+    }
+
+    @Test
+    void hashDependsOnTilesNotOnPlacementOrder() {
+        Board forward = boardWith("HOUSE", 7, 5, true);
+        Board backward = new Board(WORDS);
+        for (int i = 4; i >= 0; i--) {
+            backward.place(7, 5 + i, "HOUSE".charAt(i));
+        }
+        assertEquals(forward.getHash(), backward.getHash());
+        assertEquals(forward.getHash(), forward.copy().getHash());
+    }
+
+    @Test
+    void wordMustNotTouchTilesAlongItsOwnLine() {
+        Board board = boardWith("HOUSE", 7, 5, true);
+        assertFalse(board.canPlace("AT", 7, 3, true));
+        assertFalse(board.canPlace("AT", 7, 10, true));
+        assertTrue(board.canPlace("HOUSES", 7, 5, true));
+        assertTrue(board.canPlace("AT", 8, 4, true));
+        assertFalse(board.canPlace("CAT", 4, 5, false));
+    }
+
+    @Test
+    void validationRejectsWordThatWouldExtendAnotherWord() {
+        Lexicon lexicon = new Lexicon("test", WORDS);
+        Board board = boardWith("HOUSE", 7, 5, true);
+        ValidationContext context = ValidationContext.current();
+
+        assertEquals(ValidationContext.CANNOT_PLACE,
+                context.validate("AT", 7, 3, true, board, 2, lexicon));
+        assertEquals(ValidationContext.VALID,
+                context.validate("HOUSES", 7, 5, true, board, 1, lexicon));
+        assertEquals(HOUSES_SCORE, context.getScore());
+    }
+}
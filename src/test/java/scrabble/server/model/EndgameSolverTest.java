@@ -0,0 +1,128 @@
+package scrabble.server.model;
+
+import org.junit.jupiter.api.Test;
+import scrabble.utils.Dawg;
+import scrabble.utils.Lexicon;
+import scrabble.utils.TileBag;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static scrabble.server.model.TestRacks.rackOf;
+
+class EndgameSolverTest {
+    private static final Lexicon LEXICON = new Lexicon("test", Dawg.fromWords(new String[]{
+            "AD", "AE", "AN", "AND", "ANE", "AR", "ARE", "AS", "AT", "ATE", "CAN", "CANE", "CAR", "CARE",
+            "CARS", "CAT", "CATS", "DE", "DEN", "EAR", "EAT", "EATS", "EN", "END", "ENDS", "ERA", "ES",
+            "ET", "NA", "NE", "NET", "QI", "RAN", "RAT", "RE", "RED", "SAD", "SAT", "SEA", "SEAT", "SET",
+            "TA", "TAD", "TAN", "TAR", "TE", "TEA", "TED", "TEN", "ZA", "ZED"
+    }));
+    private static final MoveGenerator GENERATOR =
+            new MoveGenerator(LEXICON.getDictionary(), LEXICON.getGaddag());
+
+    private static Board boardWith(String... words) {
+        Board board = new Board(LEXICON.getDictionary());
+        for (String entry : words) {
+            String[] parts = entry.split(" ");
+            int row = Integer.parseInt(parts[1]);
+            int col = Integer.parseInt(parts[2]);
+            boolean horizontal = parts[3].equals("h");
+            for (int i = 0; i < parts[0].length(); i++) {
+                int r = horizontal ? row : row + i;
+                int c = horizontal ? col + i : col;
+                if (!board.isOccupied(r, c)) {
+                    board.place(r, c, parts[0].charAt(i));
+                }
+            }
+        }
+        return board;
+    }
+
+    private static int value(List<Character> rack) {
+        int value = 0;
+        for (char letter : rack) {
+            value += letter == '?' ? 0 : TileBag.getLetterValue(letter);
+        }
+        return value;
+    }
+
+    /**
+     * Позиция и стойка после хода: новые фишки снимаются со стойки, строчная буква - бланк
+     */
+    private static Board play(Board board, MoveGenerator.Placement move, List<Character> rack) {
+        Board next = board.copy();
+        String word = move.getWord();
+        for (int i = 0; i < word.length(); i++) {
+            int r = move.isHorizontal() ? move.getRow() : move.getRow() + i;
+            int c = move.isHorizontal() ? move.getCol() + i : move.getCol();
+            if (!next.isOccupied(r, c)) {
+                char letter = word.charAt(i);
+                next.place(r, c, letter);
+                assertTrue(rack.remove((Character) (Character.isLowerCase(letter) ? '?' : letter)));
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Полный минимакс без отсечений и без ограничения глубины: игра кончается,
+     * когда кто-то выложил все фишки или оба спасовали подряд
+     */
+    private static int minimax(Board board, List<Character> own, List<Character> opponent, int passes) {
+        if (passes >= 2) {
+            return value(opponent) - value(own);
+        }
+        int best = -minimax(board, opponent, own, passes + 1);
+        for (MoveGenerator.Placement move : GENERATOR.generate(board, own)) {
+            best = Math.max(best, valueOf(board, move, own, opponent));
+        }
+        return best;
+    }
+
+    private static int valueOf(Board board, MoveGenerator.Placement move, List<Character> own,
+                               List<Character> opponent) {
+        if (move == null) {
+            return -minimax(board, opponent, own, 1);
+        }
+        List<Character> rest = new ArrayList<>(own);
+        Board next = play(board, move, rest);
+        return rest.isEmpty()
+                ? move.getScore() + 2 * value(opponent)
+                : move.getScore() - minimax(next, opponent, rest, 0);
+    }
+
+    private static void assertSolved(Board board, String own, String opponent) {
+        int expected = minimax(board, rackOf(own), rackOf(opponent), 0);
+        for (int tableBits : new int[]{1, 4, EndgameSolver.DEFAULT_TABLE_BITS}) {
+            EndgameSolver.Result result = new EndgameSolver(LEXICON, tableBits)
+                    .solve(board, rackOf(own), rackOf(opponent), 60_000);
+            String position = own + " vs " + opponent + ", table bits " + tableBits;
+            assertTrue(result.isExact(), position);
+            assertTrue(result.isComplete(), position);
+            assertEquals(expected, result.getSpread(), position);
+            assertEquals(expected, valueOf(board, result.getBestMove(), rackOf(own), rackOf(opponent)), position);
+        }
+    }
+
+    @Test
+    void matchesFullMinimax() {
+        Board board = boardWith("CAT 7 6 h", "EATS 4 8 v");
+        assertSolved(board, "RED", "AN");
+        assertSolved(board, "ZQ", "ADE");
+        assertSolved(board, "N?", "SE");
+        assertSolved(boardWith("CAT 7 6 h"), "QZ", "QZ");
+    }
+
+    @Test
+    void asyncSolveAgreesWithSyncSolve() throws Exception {
+        Board board = boardWith("CAT 7 6 h", "EATS 4 8 v");
+        EndgameSolver solver = new EndgameSolver(LEXICON);
+        EndgameSolver.Result sync = solver.solve(board, rackOf("RED"), rackOf("AN"), 60_000);
+        EndgameSolver.Result async = solver.solveAsync(board, rackOf("RED"), rackOf("AN"), 60_000).get();
+        assertEquals(sync.getSpread(), async.getSpread());
+        assertEquals(String.valueOf(sync.getBestMove()), String.valueOf(async.getBestMove()));
+        assertEquals(sync.getVariation(), async.getVariation());
+    }
+}
@@ -0,0 +1,153 @@
+package scrabble.server.model;
+
+import org.junit.jupiter.api.Test;
+import scrabble.utils.Dawg;
+import scrabble.utils.Lexicon;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static scrabble.server.model.TestRacks.countsOf;
+import static scrabble.server.model.TestRacks.rackOf;
+
+class MoveGeneratorTest {
+    private static final String[] WORDS = {
+            "AE", "AN", "ANE", "ANT", "ANTE", "ANTS", "AR", "ARC", "ARE", "ARES", "ART", "ARTS", "AS",
+            "AT", "ATE", "CAN", "CANE", "CANS", "CANT", "CAR", "CARE", "CARES", "CARS", "CART", "CARTS",
+            "CAST", "CASTE", "CAT", "CATS", "EAR", "EARN", "EAST", "EAT", "EATS", "ERA", "ES", "ET",
+            "NA", "NE", "NEAT", "NET", "NETS", "RACE", "RACES", "RAN", "RANT", "RAT", "RATE", "RATS",
+            "RE", "REST", "SANE", "SAT", "SCAN", "SCAR", "SCARE", "SEA", "SEAT", "SENT", "SET", "STAR",
+            "STARE", "STERN", "TA", "TAN", "TAR", "TEA", "TEN", "TRACE", "TRACES"
+    };
+    private static final Lexicon LEXICON = new Lexicon("test", Dawg.fromWords(WORDS));
+
+    private static MoveGenerator generator() {
+        return new MoveGenerator(LEXICON.getDictionary(), LEXICON.getGaddag());
+    }
+
+    private static Board position() {
+        Board board = new Board(LEXICON.getDictionary());
+        String[][] tiles = {{"CAT", "7", "6", "h"}, {"AnTS", "5", "8", "v"}};
+        for (String[] tile : tiles) {
+            int row = Integer.parseInt(tile[1]);
+            int col = Integer.parseInt(tile[2]);
+            boolean horizontal = tile[3].equals("h");
+            for (int i = 0; i < tile[0].length(); i++) {
+                int r = horizontal ? row : row + i;
+                int c = horizontal ? col + i : col;
+                if (!board.isOccupied(r, c)) {
+                    board.place(r, c, tile[0].charAt(i));
+                }
+            }
+        }
+        return board;
+    }
+
+    private static String keyOf(String word, int row, int col, boolean horizontal) {
+        return word + " " + row + " " + col + " " + (horizontal ? "h" : "v");
+    }
+
+    /**
+     * Каждое слово словаря в каждой клетке и направлении, с бланками на любом
+     * подмножестве новых клеток; ход принимается, если его пропускает валидатор.
+     * Одна фишка с соседями по строке считается горизонтальным ходом, как в генераторе.
+     */
+    private static Map<String, Integer> bruteForce(Board board, String rack) {
+        int[] counts = countsOf(rack);
+        ValidationContext context = ValidationContext.current();
+        Map<String, Integer> moves = new TreeMap<>();
+        for (String word : WORDS) {
+            for (int row = 0; row < Board.SIZE; row++) {
+                for (int col = 0; col < Board.SIZE; col++) {
+                    for (boolean horizontal : new boolean[]{true, false}) {
+                        int freshMask = 0;
+                        for (int i = 0; i < word.length(); i++) {
+                            int r = horizontal ? row : row + i;
+                            int c = horizontal ? col + i : col;
+                            if (r < Board.SIZE && c < Board.SIZE && !board.isOccupied(r, c)) {
+                                freshMask |= 1 << i;
+                            }
+                        }
+                        // все подмножества новых клеток под бланки
+                        for (int blanks = freshMask; ; blanks = (blanks - 1) & freshMask) {
+                            if (context.validate(word, blanks, row, col, horizontal, board, counts, LEXICON)
+                                    == ValidationContext.VALID
+                                    && !(!horizontal && context.getTilesPlaced() == 1
+                                    && hasRowNeighbour(board, row + Integer.numberOfTrailingZeros(freshMask), col))) {
+                                char[] text = word.toCharArray();
+                                for (int i = 0; i < text.length; i++) {
+                                    if ((blanks & (1 << i)) != 0) {
+                                        text[i] = Character.toLowerCase(text[i]);
+                                    }
+                                }
+                                moves.put(keyOf(new String(text), row, col, horizontal), context.getScore());
+                            }
+                            if (blanks == 0) {
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return moves;
+    }
+
+    private static boolean hasRowNeighbour(Board board, int row, int col) {
+        return (col > 0 && board.isOccupied(row, col - 1)) || (col < Board.SIZE - 1 && board.isOccupied(row, col + 1));
+    }
+
+    private static Map<String, Integer> generated(List<MoveGenerator.Placement> placements) {
+        Map<String, Integer> moves = new TreeMap<>();
+        for (MoveGenerator.Placement p : placements) {
+            Integer previous = moves.put(keyOf(p.getWord(), p.getRow(), p.getCol(), p.isHorizontal()), p.getScore());
+            assertEquals(null, previous, "duplicate " + p);
+        }
+        return moves;
+    }
+
+    @Test
+    void matchesBruteForceOnFixedPosition() {
+        Board board = position();
+        for (String rack : List.of("CARTSEN", "ANE?RS", "Q", "??")) {
+            Map<String, Integer> expected = bruteForce(board, rack);
+            assertEquals(expected, generated(generator().generate(board, rackOf(rack))), rack);
+        }
+        assertTrue(bruteForce(board, "CARTSEN").size() > 100);
+    }
+
+    @Test
+    void matchesBruteForceOnEmptyBoard() {
+        Board board = new Board(LEXICON.getDictionary());
+        Map<String, Integer> expected = bruteForce(board, "CARTS?E");
+        assertEquals(expected, generated(generator().generate(board, rackOf("CARTS?E"))));
+        assertTrue(expected.size() > 100);
+    }
+
+    @Test
+    void parallelBestMovesAgreeWithFullList() {
+        Board board = position();
+        List<Character> rack = rackOf("CARTSE?");
+        List<MoveGenerator.Placement> all = new ArrayList<>(generator().generate(board, rack));
+        all.sort(MoveGenerator.Placement.BY_SCORE);
+        assertTrue(board.getAnchorCount() >= MoveGenerator.PARALLEL_THRESHOLD);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int limit : new int[]{1, 10, 50, all.size() + 5}) {
+                List<String> expected = new ArrayList<>();
+                all.subList(0, Math.min(limit, all.size())).forEach(p -> expected.add(p.toString()));
+                List<String> actual = new ArrayList<>();
+                generator().generateBest(board, rack, limit, pool).forEach(p -> actual.add(p.toString()));
+                assertEquals(expected, actual, "limit " + limit);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
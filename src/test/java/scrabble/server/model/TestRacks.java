@@ -0,0 +1,37 @@
+package scrabble.server.model;
+
+import scrabble.utils.Zobrist;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Стойки для тестов генератора, проверки и поиска ходов
+ */
+final class TestRacks {
+
+    private TestRacks() {
+    }
+
+    /**
+     * Стойка из строки букв; '?' - бланк
+     */
+    static List<Character> rackOf(String letters) {
+        List<Character> rack = new ArrayList<>();
+        for (char letter : letters.toCharArray()) {
+            rack.add(letter);
+        }
+        return rack;
+    }
+
+    /**
+     * Та же стойка как счётчики по типам фишек, в виде для ValidationContext
+     */
+    static int[] countsOf(String letters) {
+        int[] counts = new int[Zobrist.TILE_TYPES];
+        for (char letter : letters.toCharArray()) {
+            counts[Zobrist.tileType(letter)]++;
+        }
+        return counts;
+    }
+}
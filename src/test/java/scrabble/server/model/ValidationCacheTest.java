@@ -0,0 +1,103 @@
+package scrabble.server.model;
+
+import org.junit.jupiter.api.Test;
+import scrabble.utils.Dawg;
+import scrabble.utils.Lexicon;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ValidationCacheTest {
+    private static final String[] WORDS = {"AT", "CAT"};
+    private static final Lexicon LEXICON = new Lexicon("test", Dawg.fromWords(WORDS));
+
+    private static ValidationCache.Key key(long rackHash, Lexicon lexicon, String word, List<String> tileIds) {
+        return new ValidationCache.Key(42L, rackHash, lexicon, word, 7, 6, true, tileIds);
+    }
+
+    private static ValidationCache.Key key(String word) {
+        return key(1L, LEXICON, word, List.of("t1", "t2", "t3"));
+    }
+
+    private static Supplier<WordChecker.ValidationResult> counting(AtomicInteger calls, int score) {
+        return () -> {
+            calls.incrementAndGet();
+            WordChecker.ValidationResult result = new WordChecker.ValidationResult();
+            result.setValid(true);
+            result.setScore(score);
+            result.addFormedWord("CAT");
+            return result;
+        };
+    }
+
+    @Test
+    void repeatedMoveIsServedFromCache() {
+        ValidationCache cache = new ValidationCache();
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals(10, cache.get(key("CAT"), counting(calls, 10)).getScore());
+        assertEquals(10, cache.get(key("CAT"), counting(calls, 99)).getScore());
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate());
+    }
+
+    @Test
+    void callersGetIndependentCopies() {
+        ValidationCache cache = new ValidationCache();
+        AtomicInteger calls = new AtomicInteger();
+
+        WordChecker.ValidationResult first = cache.get(key("CAT"), counting(calls, 10));
+        first.setScore(0);
+        first.addFormedWord("AT");
+        WordChecker.ValidationResult second = cache.get(key("CAT"), counting(calls, 10));
+        second.setValid(false);
+
+        WordChecker.ValidationResult third = cache.get(key("CAT"), counting(calls, 10));
+        assertTrue(third.isValid());
+        assertEquals(10, third.getScore());
+        assertEquals(List.of("CAT"), third.getFormedWords());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        ValidationCache cache = new ValidationCache(2);
+        AtomicInteger calls = new AtomicInteger();
+
+        cache.get(key("AT"), counting(calls, 1));
+        cache.get(key("CAT"), counting(calls, 2));
+        cache.get(key("AT"), counting(calls, 1));
+        cache.get(key("TA"), counting(calls, 3));
+        assertEquals(2, cache.size());
+        assertEquals(3, calls.get());
+
+        cache.get(key("AT"), counting(calls, 1));
+        assertEquals(3, calls.get());
+        cache.get(key("CAT"), counting(calls, 2));
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void keyCoversRackLexiconAndTiles() {
+        ValidationCache.Key base = key(1L, LEXICON, "CAT", List.of("t1", "t2", "t3"));
+        assertEquals(base, key(1L, LEXICON, "CAT", List.of("t1", "t2", "t3")));
+        assertEquals(base.hashCode(), key(1L, LEXICON, "CAT", List.of("t1", "t2", "t3")).hashCode());
+
+        Lexicon reloaded = new Lexicon("test", Dawg.fromWords(WORDS));
+        ValidationCache cache = new ValidationCache();
+        AtomicInteger calls = new AtomicInteger();
+        cache.get(base, counting(calls, 1));
+        cache.get(key(2L, LEXICON, "CAT", List.of("t1", "t2", "t3")), counting(calls, 1));
+        cache.get(key(1L, reloaded, "CAT", List.of("t1", "t2", "t3")), counting(calls, 1));
+        cache.get(key(1L, LEXICON, "CAT", List.of("t1", "t2", "t4")), counting(calls, 1));
+        cache.get(key(1L, LEXICON, "CAT", null), counting(calls, 1));
+        assertEquals(5, calls.get());
+        assertEquals(5, cache.size());
+    }
+}
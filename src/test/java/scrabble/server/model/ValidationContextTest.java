@@ -0,0 +1,76 @@
+package scrabble.server.model;
+
+import org.junit.jupiter.api.Test;
+import scrabble.utils.Dawg;
+import scrabble.utils.Lexicon;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static scrabble.server.model.TestRacks.countsOf;
+
+class ValidationContextTest {
+    private static final Lexicon LEXICON =
+            new Lexicon("test", Dawg.fromWords(new String[]{"AT", "CAT", "HOUSE", "HOUSES"}));
+
+    private static int validate(String word, int blankMask, Board board, String rack) {
+        return ValidationContext.current().validate(word, blankMask, 7, 6, true, board, countsOf(rack), LEXICON);
+    }
+
+    @Test
+    void everyNewLetterMustBeOnTheRack() {
+        Board board = new Board(LEXICON.getDictionary());
+        assertEquals(ValidationContext.VALID, validate("CAT", 0, board, "CATXYZQ"));
+        assertEquals(ValidationContext.MISSING_TILES, validate("CAT", 0, board, "CAXYZQ"));
+        assertEquals(ValidationContext.MISSING_TILES, validate("CAT", 0, board, "CCAAXYZ"));
+    }
+
+    @Test
+    void blankOnlyWhereTheMoveMarksOne() {
+        Board board = new Board(LEXICON.getDictionary());
+        assertEquals(ValidationContext.MISSING_TILES, validate("CAT", 0, board, "CA "));
+        assertEquals(ValidationContext.MISSING_TILES, validate("CAT", 0b100, board, "CAT"));
+        assertEquals(ValidationContext.VALID, validate("CAT", 0b100, board, "CA "));
+        // C3 A1, бланк без очков, H8 удваивает слово
+        assertEquals(8, ValidationContext.current().getScore());
+    }
+
+    @Test
+    void tilesAlreadyOnTheBoardAreNotTakenFromTheRack() {
+        Board board = BoardTest.boardWith("HOUSE", 7, 6, true);
+        assertEquals(ValidationContext.VALID, validate("HOUSES", 0, board, "S"));
+        assertEquals(ValidationContext.MISSING_TILES, validate("HOUSES", 0, board, "E"));
+    }
+
+    /**
+     * Проверка в контексте не создаёт объектов: после прогрева поток не
+     * выделяет ни байта ни на допустимых ходах, ни на ошибках
+     */
+    @Test
+    void validationDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Board board = BoardTest.boardWith("HOUSE", 7, 6, true);
+        int[] rack = countsOf("SCAT?");
+        ValidationContext context = ValidationContext.current();
+        for (int i = 0; i < 20_000; i++) {
+            validateAll(context, board, rack);
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        int checksum = 0;
+        for (int i = 0; i < 1_000; i++) {
+            checksum += validateAll(context, board, rack);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertEquals(0, allocated);
+        assertEquals(1_000 * validateAll(context, board, rack), checksum);
+    }
+
+    private static int validateAll(ValidationContext context, Board board, int[] rack) {
+        return context.validate("HOUSES", 0, 7, 6, true, board, rack, LEXICON)
+                + context.validate(" cat ", 0b001, 6, 7, false, board, rack, LEXICON)
+                + context.validate("ZZZ", 0, 0, 0, true, board, rack, LEXICON)
+                + context.getScore();
+    }
+}
@@ -0,0 +1,85 @@
+package scrabble.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static scrabble.utils.TestWords.randomWords;
+
+class AnagramIndexTest {
+    private static final TreeSet<String> WORDS = randomWords(5, 3000, "AEIRST", 8);
+    private static final String LONG_WORD = "AAAAAAAAAAAAA";
+
+    private static AnagramIndex index() {
+        TreeSet<String> words = new TreeSet<>(WORDS);
+        words.add(LONG_WORD);
+        return AnagramIndex.fromDawg(Dawg.fromWords(words.toArray(new String[0])));
+    }
+
+    private static String sorted(CharSequence letters) {
+        char[] chars = letters.toString().toUpperCase().toCharArray();
+        Arrays.sort(chars);
+        return new String(chars);
+    }
+
+    /**
+     * Слово составляется со стойки, если недостающих букв не больше, чем бланков
+     */
+    private static boolean playable(String word, String rack) {
+        int[] counts = new int[26];
+        int blanks = 0;
+        for (char c : rack.toCharArray()) {
+            if (c == AnagramIndex.BLANK) {
+                blanks++;
+            } else {
+                counts[c - 'A']++;
+            }
+        }
+        for (char c : word.toCharArray()) {
+            if (--counts[c - 'A'] < 0 && --blanks < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    void anagramsAreWordsWithTheSameLetters() {
+        AnagramIndex index = index();
+        for (String letters : List.of("AEIRST", "TSRA", "EAT", "A", "SATIRE", "aeirst", "TTTTTTTT", "XYZ", "")) {
+            Set<String> expected = new TreeSet<>();
+            for (String word : WORDS) {
+                if (sorted(word).equals(sorted(letters))) {
+                    expected.add(word);
+                }
+            }
+            assertEquals(expected, new TreeSet<>(index.getAnagrams(letters)), letters);
+        }
+        assertTrue(index.getAnagrams(LONG_WORD).isEmpty());
+    }
+
+    @Test
+    void findWordsAgreesWithBruteForce() {
+        AnagramIndex index = index();
+        for (String rack : List.of("AEIRSTT", "AERST??", "?", "??", "AAXT", "IIRR?E", "SSTTEEA")) {
+            for (int minLength = 1; minLength <= 3; minLength++) {
+                Set<String> expected = new TreeSet<>();
+                for (String word : WORDS) {
+                    if (word.length() >= minLength && playable(word, rack)) {
+                        expected.add(word);
+                    }
+                }
+                List<String> found = index.findWords(rack, minLength);
+                assertEquals(found.size(), new HashSet<>(found).size(), "duplicates for " + rack);
+                assertEquals(expected, new TreeSet<>(found), rack + " from " + minLength);
+            }
+        }
+        assertEquals(new TreeSet<>(index.findWords("AERST??", 2)), new TreeSet<>(index.findWords("AERST  ", 2)));
+    }
+}
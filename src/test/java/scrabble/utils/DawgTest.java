@@ -0,0 +1,107 @@
+package scrabble.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static scrabble.utils.TestWords.randomWords;
+import static scrabble.utils.TestWords.wordsOf;
+
+class DawgTest {
+
+    /**
+     * Число состояний минимального автомата: различные множества суффиксов по всем префиксам слов
+     */
+    private static int minimalStateCount(Set<String> words) {
+        Set<String> prefixes = new HashSet<>();
+        for (String word : words) {
+            for (int i = 0; i <= word.length(); i++) {
+                prefixes.add(word.substring(0, i));
+            }
+        }
+        Set<Set<String>> languages = new HashSet<>();
+        for (String prefix : prefixes) {
+            Set<String> suffixes = new HashSet<>();
+            for (String word : words) {
+                if (word.startsWith(prefix)) {
+                    suffixes.add(word.substring(prefix.length()));
+                }
+            }
+            languages.add(suffixes);
+        }
+        return languages.size();
+    }
+
+    @Test
+    void containsExactlyTheGivenWords() {
+        TreeSet<String> words = randomWords(1, 2000, "ABCDE", 7);
+        Dawg dawg = Dawg.fromWords(words.toArray(new String[0]));
+
+        assertEquals(new ArrayList<>(words), wordsOf(dawg));
+        assertEquals(words.size(), dawg.getWordCount());
+        for (String candidate : randomWords(2, 5000, "ABCDEF", 8)) {
+            assertEquals(words.contains(candidate), dawg.contains(candidate), candidate);
+            boolean prefix = words.stream().anyMatch(w -> w.startsWith(candidate));
+            assertEquals(prefix, dawg.hasPrefix(candidate), candidate);
+        }
+        assertFalse(dawg.contains(""));
+    }
+
+    @Test
+    void graphIsMinimal() {
+        TreeSet<String> words = randomWords(3, 300, "ABCD", 6);
+        Dawg dawg = Dawg.fromWords(words.toArray(new String[0]));
+        assertEquals(minimalStateCount(words), dawg.getNodeCount());
+
+        // общие окончания делят один путь
+        Dawg shared = Dawg.fromWords(new String[]{"BAT", "BATS", "CAT", "CATS"});
+        Dawg single = Dawg.fromWords(new String[]{"CAT", "CATS"});
+        assertEquals(single.getNodeCount(), shared.getNodeCount());
+    }
+
+    @Test
+    void fromWordsSortsAndDeduplicatesInput() {
+        Dawg dawg = Dawg.fromWords(new String[]{"dog", "CAT", "cat", "Bird"});
+        assertEquals(List.of("BIRD", "CAT", "DOG"), wordsOf(dawg));
+    }
+
+    @Test
+    void builderRejectsUnsortedAndInvalidWords() {
+        Dawg.Builder builder = new Dawg.Builder().add("CAT");
+        assertThrows(IllegalArgumentException.class, () -> builder.add("BAT"));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("CA"));
+        assertThrows(IllegalArgumentException.class, () -> new Dawg.Builder().add("C1T"));
+    }
+
+    @Test
+    void matchAgreesWithRegex() {
+        TreeSet<String> words = randomWords(4, 2000, "ABCDE", 7);
+        Dawg dawg = Dawg.fromWords(words.toArray(new String[0]));
+        for (String pattern : List.of("?", "??", "A?", "?B?", "???", "A??E", "????", "?A?A?", "ABCDEAB", "F?")) {
+            Pattern regex = Pattern.compile(pattern.replace('?', '.'));
+            Set<String> expected = new TreeSet<>();
+            for (String word : words) {
+                if (regex.matcher(word).matches()) {
+                    expected.add(word);
+                }
+            }
+            Set<String> actual = new TreeSet<>();
+            dawg.match(pattern, actual::add);
+            assertEquals(expected, actual, pattern);
+        }
+
+        Set<String> lowerCase = new TreeSet<>();
+        dawg.match("a?", lowerCase::add);
+        Set<String> upperCase = new TreeSet<>();
+        dawg.match("A?", upperCase::add);
+        assertEquals(upperCase, lowerCase);
+    }
+}
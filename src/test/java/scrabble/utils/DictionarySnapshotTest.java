@@ -0,0 +1,117 @@
+package scrabble.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static scrabble.utils.TestWords.wordsOf;
+
+class DictionarySnapshotTest {
+    private static final byte[] SOURCE = "cat\ncats\ndog\ndogs\nzebra\n".getBytes(StandardCharsets.US_ASCII);
+    private static final long CHECKSUM = DictionarySnapshot.checksum(SOURCE);
+
+    private static byte[] snapshot() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DictionarySnapshot.write(DictionaryLoader.parseWords(SOURCE), CHECKSUM, out);
+        return out.toByteArray();
+    }
+
+    private static Dawg read(byte[] bytes, long checksum) throws IOException {
+        return DictionarySnapshot.read(new ByteArrayInputStream(bytes), checksum);
+    }
+
+    @Test
+    void readsBackTheSameGraph() throws IOException {
+        Dawg dawg = read(snapshot(), CHECKSUM);
+        assertNotNull(dawg);
+        assertEquals(List.of("CAT", "CATS", "DOG", "DOGS", "ZEBRA"), wordsOf(dawg));
+        assertEquals(5, dawg.getWordCount());
+        assertEquals(DictionaryLoader.parseWords(SOURCE).getNodeCount(), dawg.getNodeCount());
+    }
+
+    @Test
+    void mapsSnapshotOffHeap(@TempDir Path directory) throws IOException {
+        Path file = DictionarySnapshot.extract(new ByteArrayInputStream(snapshot()), directory, CHECKSUM);
+        Dawg dawg = DictionarySnapshot.map(file, CHECKSUM);
+        assertNotNull(dawg);
+        assertTrue(dawg.isOffHeap());
+        assertTrue(dawg.contains("ZEBRA"));
+
+        // уже извлечённый снимок не перезаписывается
+        assertEquals(file, DictionarySnapshot.extract(new ByteArrayInputStream(new byte[0]), directory, CHECKSUM));
+        assertEquals(snapshot().length, Files.size(file));
+    }
+
+    @Test
+    void staleSnapshotIsRejected() throws IOException {
+        byte[] changed = "cat\ncats\ndog\n".getBytes(StandardCharsets.US_ASCII);
+        assertNull(read(snapshot(), DictionarySnapshot.checksum(changed)));
+    }
+
+    @Test
+    void damagedSnapshotIsRejected() throws IOException {
+        byte[] bytes = snapshot();
+
+        byte[] badMagic = bytes.clone();
+        badMagic[0] ^= 1;
+        assertNull(read(badMagic, CHECKSUM));
+
+        byte[] newerVersion = bytes.clone();
+        ByteBuffer.wrap(newerVersion).putInt(4, DictionarySnapshot.VERSION + 1);
+        assertNull(read(newerVersion, CHECKSUM));
+
+        assertNull(read(Arrays.copyOf(bytes, bytes.length - 4), CHECKSUM));
+        assertNull(read(Arrays.copyOf(bytes, bytes.length + 4), CHECKSUM));
+        assertNull(read(Arrays.copyOf(bytes, DictionarySnapshot.HEADER_SIZE - 1), CHECKSUM));
+    }
+
+    @Test
+    void snapshotWithBrokenGraphIsRejected() throws IOException {
+        byte[] bytes = snapshot();
+        ByteBuffer header = ByteBuffer.wrap(bytes);
+        int nodeLength = header.getInt(24);
+        int edges = DictionarySnapshot.HEADER_SIZE + 4 * nodeLength;
+
+        byte[] badRoot = bytes.clone();
+        ByteBuffer.wrap(badRoot).putInt(16, nodeLength);
+        assertNull(read(badRoot, CHECKSUM));
+
+        byte[] badTarget = bytes.clone();
+        ByteBuffer.wrap(badTarget).putInt(edges, Integer.MAX_VALUE);
+        assertNull(read(badTarget, CHECKSUM));
+
+        // рёбра последнего узла начинаются за концом массива рёбер
+        byte[] badEdgeRange = bytes.clone();
+        ByteBuffer.wrap(badEdgeRange).putInt(edges - 4, Integer.MAX_VALUE - 1);
+        assertNull(read(badEdgeRange, CHECKSUM));
+
+        byte[] negativeLength = bytes.clone();
+        ByteBuffer.wrap(negativeLength).putInt(24, -nodeLength);
+        assertNull(read(negativeLength, CHECKSUM));
+    }
+
+    @Test
+    void damagedCachedCopyIsExtractedAgain(@TempDir Path directory) throws IOException {
+        Path file = DictionarySnapshot.extract(new ByteArrayInputStream(snapshot()), directory, CHECKSUM);
+        Files.write(file, Arrays.copyOf(snapshot(), snapshot().length - 4));
+        assertNull(DictionarySnapshot.map(file, CHECKSUM));
+
+        assertEquals(file, DictionarySnapshot.extract(new ByteArrayInputStream(snapshot()), directory, CHECKSUM));
+        Dawg dawg = DictionarySnapshot.map(file, CHECKSUM);
+        assertNotNull(dawg);
+        assertEquals(List.of("CAT", "CATS", "DOG", "DOGS", "ZEBRA"), wordsOf(dawg));
+    }
+}
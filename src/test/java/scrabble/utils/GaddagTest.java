@@ -0,0 +1,143 @@
+package scrabble.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GaddagTest {
+    private static final int SIZE = Gaddag.BOARD_SIZE;
+    private static final int ALL_LETTERS = (1 << 26) - 1;
+
+    private static final String[] WORDS = {
+            "A", "AE", "AR", "ARE", "ARES", "ART", "ARTS", "AS", "AT", "ATE", "EAR", "EARS", "EAST",
+            "EAT", "EATS", "ERA", "ERAS", "ES", "ET", "RAT", "RATE", "RATES", "RATS", "REST", "SAT",
+            "SATE", "SEA", "SEAT", "SET", "STAR", "STARE", "TA", "TAR", "TARE", "TEA", "TEAR", "TEAS",
+            "TREAT", "TREATS", "ABCDEFGHIJKLMNOP"
+    };
+
+    @Test
+    void storesEverySplitOfEveryPlayableWord() {
+        Gaddag gaddag = Gaddag.fromWords(WORDS);
+        Dawg graph = gaddag.getGraph();
+
+        int expectedStrings = 0;
+        for (String word : WORDS) {
+            boolean playable = word.length() >= 2 && word.length() <= SIZE;
+            assertEquals(playable, gaddag.contains(word), word);
+            if (!playable) {
+                continue;
+            }
+            for (int split = 1; split <= word.length(); split++) {
+                String reversed = new StringBuilder(word.substring(0, split)).reverse().toString();
+                String suffix = word.substring(split);
+                assertTrue(graph.contains(suffix.isEmpty() ? reversed : reversed + Dawg.SEPARATOR_CHAR + suffix),
+                        word + " split at " + split);
+            }
+            expectedStrings += word.length();
+        }
+        assertEquals(expectedStrings, graph.getWordCount());
+        assertFalse(gaddag.contains("TAE"));
+        assertFalse(gaddag.contains("RA^T"));
+
+        Gaddag fromDawg = Gaddag.fromDawg(Dawg.fromWords(WORDS));
+        assertEquals(graph.getNodeCount(), fromDawg.getGraph().getNodeCount());
+        assertEquals(graph.getWordCount(), fromDawg.getGraph().getWordCount());
+    }
+
+    @Test
+    void generatesEveryPlacementExactlyOnce() {
+        Gaddag gaddag = Gaddag.fromWords(WORDS);
+        char[] line = new char[SIZE];
+        line[4] = 'A';
+        line[9] = 'T';
+        line[10] = 'E';
+        int[] crossChecks = new int[SIZE];
+        Arrays.fill(crossChecks, ALL_LETTERS);
+        crossChecks[3] &= ~(1 << ('S' - 'A'));
+        crossChecks[8] = 0;
+        int[] rack = new int[Gaddag.BLANK + 1];
+        for (char letter : "RSTE".toCharArray()) {
+            rack[letter - 'A']++;
+        }
+        rack[Gaddag.BLANK] = 1;
+
+        int anchorMask = 0;
+        for (int pos = 0; pos < SIZE; pos++) {
+            boolean nextToTile = (pos > 0 && line[pos - 1] != 0) || (pos < SIZE - 1 && line[pos + 1] != 0);
+            if (line[pos] == 0 && nextToTile) {
+                anchorMask |= 1 << pos;
+            }
+        }
+
+        List<String> generated = new ArrayList<>();
+        for (int anchor = 0; anchor < SIZE; anchor++) {
+            if ((anchorMask & (1 << anchor)) != 0) {
+                gaddag.generate(line, crossChecks, anchorMask, anchor, rack,
+                        (start, end, cells) -> generated.add(start + ":" + new String(cells, start, end - start + 1)));
+            }
+        }
+
+        assertEquals(new HashSet<>(generated).size(), generated.size(), "duplicate placements");
+        assertEquals(bruteForce(line, crossChecks, anchorMask, rack), new TreeSet<>(generated));
+        assertEquals(1, rack[Gaddag.BLANK]);
+    }
+
+    /**
+     * Все размещения слов в линии: совпадают с фишками линии, не соседствуют с ними
+     * по концам, ставят хотя бы одну фишку на якорь, проходят поперечные проверки
+     * и обходятся стойкой. Бланк (строчная буква) пробуется на каждой новой клетке.
+     */
+    private static Set<String> bruteForce(char[] line, int[] crossChecks, int anchorMask, int[] rack) {
+        Set<String> placements = new TreeSet<>();
+        for (String word : WORDS) {
+            for (int start = 0; start + word.length() <= SIZE; start++) {
+                int end = start + word.length() - 1;
+                if ((start > 0 && line[start - 1] != 0) || (end < SIZE - 1 && line[end + 1] != 0)) {
+                    continue;
+                }
+                List<Integer> fresh = new ArrayList<>();
+                boolean fits = word.length() >= 2;
+                boolean anchored = false;
+                for (int pos = start; pos <= end && fits; pos++) {
+                    char letter = word.charAt(pos - start);
+                    if (line[pos] != 0) {
+                        fits = line[pos] == letter;
+                    } else {
+                        fits = (crossChecks[pos] & (1 << (letter - 'A'))) != 0;
+                        anchored |= (anchorMask & (1 << pos)) != 0;
+                        fresh.add(pos);
+                    }
+                }
+                if (!fits || !anchored) {
+                    continue;
+                }
+                for (int blanks = 0; blanks < 1 << fresh.size(); blanks++) {
+                    int[] left = rack.clone();
+                    char[] cells = word.toCharArray();
+                    boolean covered = true;
+                    for (int i = 0; i < fresh.size(); i++) {
+                        int offset = fresh.get(i) - start;
+                        int type = (blanks & (1 << i)) != 0 ? Gaddag.BLANK : cells[offset] - 'A';
+                        covered &= --left[type] >= 0;
+                        if (type == Gaddag.BLANK) {
+                            cells[offset] = Character.toLowerCase(cells[offset]);
+                        }
+                    }
+                    if (covered) {
+                        placements.add(start + ":" + new String(cells));
+                    }
+                }
+            }
+        }
+        return placements;
+    }
+}
@@ -0,0 +1,74 @@
+package scrabble.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RackLeavesTest {
+    private static final int TYPES = Zobrist.TILE_TYPES;
+
+    /**
+     * Обходит все мультимножества до MAX_TILES фишек и отмечает их номера
+     */
+    private static int visit(int[] counts, int type, int size, boolean[] seen) {
+        int index = RackLeaves.index(counts);
+        assertTrue(index >= 0 && index < seen.length, "index out of range: " + index);
+        assertFalse(seen[index], "collision at " + index);
+        seen[index] = true;
+        int visited = 1;
+        if (size == RackLeaves.MAX_TILES) {
+            return visited;
+        }
+        for (int next = type; next < TYPES; next++) {
+            counts[next]++;
+            visited += visit(counts, next, size + 1, seen);
+            counts[next]--;
+        }
+        return visited;
+    }
+
+    private static long multisets(int types, int size) {
+        // C(types + size - 1, size)
+        long result = 1;
+        for (int i = 1; i <= size; i++) {
+            result = result * (types + i - 1) / i;
+        }
+        return result;
+    }
+
+    @Test
+    void indexIsBijectiveOverAllLeaves() {
+        int size = RackLeaves.fromDawg(Dawg.fromWords(new String[]{"CAT", "DOG"})).getSize();
+        long expected = 0;
+        for (int tiles = 0; tiles <= RackLeaves.MAX_TILES; tiles++) {
+            expected += multisets(TYPES, tiles);
+        }
+        assertEquals(expected, size);
+
+        boolean[] seen = new boolean[size];
+        assertEquals(size, visit(new int[TYPES], 0, 0, seen));
+        for (boolean hit : seen) {
+            assertTrue(hit);
+        }
+    }
+
+    @Test
+    void indexRejectsMoreThanMaxTiles() {
+        int[] counts = new int[TYPES];
+        counts[TYPES - 1] = RackLeaves.MAX_TILES;
+        assertTrue(RackLeaves.index(counts) >= 0);
+        counts[0] = 1;
+        assertEquals(-1, RackLeaves.index(counts));
+    }
+
+    @Test
+    void valueDependsOnlyOnTheMultiset() {
+        RackLeaves leaves = RackLeaves.fromDawg(Dawg.fromWords(new String[]{"CAT", "DOG", "QUIZ"}));
+        assertEquals(0f, leaves.getValue(""));
+        assertEquals(leaves.getValue("AEQ?"), leaves.getValue("?QEA"));
+        assertEquals(leaves.getValue("AEQ?"), leaves.getValue("AEQ "));
+        assertEquals(0f, leaves.getValue("AEIOUST"));
+    }
+}
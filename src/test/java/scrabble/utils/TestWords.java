@@ -0,0 +1,40 @@
+package scrabble.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Общие наборы слов для тестов словарных структур
+ */
+final class TestWords {
+
+    private TestWords() {
+    }
+
+    /**
+     * Случайные слова над маленьким алфавитом, чтобы было много общих префиксов и суффиксов
+     */
+    static TreeSet<String> randomWords(long seed, int count, String alphabet, int maxLength) {
+        Random random = new Random(seed);
+        TreeSet<String> words = new TreeSet<>();
+        while (words.size() < count) {
+            char[] word = new char[1 + random.nextInt(maxLength)];
+            for (int i = 0; i < word.length; i++) {
+                word[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+            }
+            words.add(new String(word));
+        }
+        return words;
+    }
+
+    /**
+     * Все слова графа в порядке обхода (по алфавиту)
+     */
+    static List<String> wordsOf(Dawg dawg) {
+        List<String> words = new ArrayList<>();
+        dawg.forEachWord(words::add);
+        return words;
+    }
+}
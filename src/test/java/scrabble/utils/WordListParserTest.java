@@ -0,0 +1,64 @@
+package scrabble.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static scrabble.utils.TestWords.wordsOf;
+
+class WordListParserTest {
+
+    private static Dawg parse(String text) {
+        return new WordListParser(new ForkJoinPool(2)).parse(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void trimsWhitespaceQuotesAndCarriageReturns() {
+        Dawg dawg = parse("cat\n  \"dog\"  \r\nHello\r\n\n\t\n");
+        assertEquals(List.of("CAT", "DOG", "HELLO"), wordsOf(dawg));
+    }
+
+    @Test
+    void rejectsLinesWithNonAsciiLetters() {
+        Dawg dawg = parse("café\nécole\nnaïve\n\"über\"\nplain\n");
+        assertEquals(List.of("PLAIN"), wordsOf(dawg));
+        assertFalse(dawg.contains("CAF"));
+        assertFalse(dawg.contains("COLE"));
+    }
+
+    @Test
+    void rejectsDigitsAndInnerSpaces() {
+        Dawg dawg = parse("abc1\ntwo words\nok\n");
+        assertEquals(List.of("OK"), wordsOf(dawg));
+    }
+
+    @Test
+    void mergesSortsAndDeduplicatesManyChunks() {
+        // больше одного куска по 256 КБ, слова вперемешку и с повторами
+        StringBuilder text = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (char a = 'a'; a <= 'z'; a++) {
+            for (char b = 'a'; b <= 'z'; b++) {
+                for (char c = 'a'; c <= 'z'; c++) {
+                    expected.add(("" + a + b + c).toUpperCase());
+                }
+            }
+        }
+        for (int copy = 0; copy < 20; copy++) {
+            for (int i = expected.size() - 1; i >= 0; i--) {
+                text.append(expected.get((i * 7919 + copy) % expected.size()).toLowerCase()).append('\n');
+            }
+        }
+        assertTrue(text.length() > 256 * 1024);
+
+        Dawg dawg = parse(text.toString());
+        assertEquals(expected, wordsOf(dawg));
+        assertEquals(expected.size(), dawg.getWordCount());
+    }
+}